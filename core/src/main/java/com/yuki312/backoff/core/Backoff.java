@@ -2,6 +2,7 @@ package com.yuki312.backoff.core;
 
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.util.concurrent.TimeUnit;
 
 public class Backoff {
@@ -18,35 +19,122 @@ public class Backoff {
 
   private final BackoffAlgorithm algorithm;
   private final int maxRetryCount;
-  private final long maxElapsedTime; // milliseconds
+  private final long maxElapsedTime; // nanoseconds
+
+  @Nullable private final SharedBackoffState sharedState;
+  @Nullable private final String sharedKey;
 
   private int retryCount = 0;
-  private long elapsedTime = 0L;
+  private long elapsedTime = 0L; // nanoseconds
 
-  private Backoff(@NonNull BackoffAlgorithm algorithm, int maxRetryCount, long maxElapsedTime) {
+  private Backoff(@NonNull BackoffAlgorithm algorithm, int maxRetryCount, long maxElapsedTime,
+      @Nullable SharedBackoffState sharedState, @Nullable String sharedKey) {
     this.algorithm = algorithm;
     this.maxRetryCount = maxRetryCount;
     this.maxElapsedTime = maxElapsedTime;
+    this.sharedState = sharedState;
+    this.sharedKey = sharedKey;
   }
 
   /**
-   * @return interval until the next retry
+   * Intervals are truncated to milliseconds, and intervals shorter than 1 millisecond are raised
+   * to 1 millisecond.
+   *
+   * @return interval until the next retry (milliseconds)
+   * @see #intervalNanos()
    */
   public long interval() {
+    long next = intervalNanos(1.0, true);
+    if (next == ABORT) {
+      return ABORT;
+    }
+    return toMillis(next);
+  }
+
+  /**
+   * If the shared state is set and another process is waiting for the next retry, this returns
+   * the remaining time of that wait without counting a retry. An aborted retry is not written to
+   * the shared state.
+   *
+   * @return interval until the next retry (nanoseconds)
+   */
+  public long intervalNanos() {
+    return intervalNanos(1.0);
+  }
+
+  /**
+   * The interval calculated by the algorithm is multiplied by the multiplier, and the multiplied
+   * interval is added to the elapsed time.
+   *
+   * @param multiplier the multiplier of the interval, e.g. for the priority of retries
+   * @return interval until the next retry (nanoseconds)
+   * @see #intervalNanos()
+   */
+  public long intervalNanos(double multiplier) {
+    return intervalNanos(multiplier, false);
+  }
+
+  /**
+   * @param millis true if the interval is used in milliseconds. The truncated interval is added
+   * to the elapsed time, so that the maximum elapsed time works as the millisecond API always did.
+   */
+  private long intervalNanos(final double multiplier, final boolean millis) {
+    if (multiplier <= 0.0) {
+      throw new IllegalArgumentException("Multiplier is invalid. Must be greater than 0.0.");
+    }
+
+    if (sharedState == null) {
+      return nextIntervalNanos(multiplier, millis);
+    }
+
+    return sharedState.update(sharedKey, new SharedBackoffState.Transaction() {
+      @Override public long run(SharedBackoffState.Slot slot, long now) {
+        retryCount = slot.retryCount;
+        elapsedTime = slot.elapsedTime;
+
+        if (slot.nextEligible > now) {
+          return TimeUnit.MILLISECONDS.toNanos(slot.nextEligible - now);
+        }
+
+        long next = nextIntervalNanos(multiplier, millis);
+        if (next == ABORT) {
+          // keep the slot, so the count does not grow and the state expires after the quiet window
+          return ABORT;
+        }
+        slot.retryCount = retryCount;
+        slot.elapsedTime = elapsedTime;
+        slot.nextEligible = now + toMillis(next);
+        return next;
+      }
+    });
+  }
+
+  private long nextIntervalNanos(double multiplier, boolean millis) {
     retryCount++;
     if (retryCount > maxRetryCount) {
       return ABORT;
     }
 
-    long next = algorithm.interval(retryCount, elapsedTime);
+    long next;
+    if (algorithm instanceof NanoBackoffAlgorithm) {
+      next = ((NanoBackoffAlgorithm) algorithm).intervalNanos(retryCount, elapsedTime);
+    } else {
+      next = TimeUnit.MILLISECONDS.toNanos(
+          algorithm.interval(retryCount, TimeUnit.NANOSECONDS.toMillis(elapsedTime)));
+    }
     if (next == ABORT) {
       return ABORT;
     }
     if (next < 0) {
       throw new IllegalStateException("Interval is invalid. Must be greater than 0.");
     }
+    if (multiplier != 1.0) {
+      next = (long) Math.max(next * multiplier, 1);
+    }
 
-    elapsedTime += next;
+    long elapsed = millis ? TimeUnit.MILLISECONDS.toNanos(toMillis(next)) : next;
+    elapsedTime =
+        (elapsed > Long.MAX_VALUE - elapsedTime) ? Long.MAX_VALUE : elapsedTime + elapsed;
     if (elapsedTime > maxElapsedTime) {
       return ABORT;
     }
@@ -54,6 +142,26 @@ public class Backoff {
     return next;
   }
 
+  /**
+   * Reset the retry count and the elapsed time.
+   * The next {@link #interval()} is calculated as the first retry again.
+   * If the shared state is set, the state of the key is reset for all processes.
+   */
+  public void reset() {
+    retryCount = 0;
+    elapsedTime = 0L;
+    if (sharedState != null) {
+      sharedState.update(sharedKey, new SharedBackoffState.Transaction() {
+        @Override public long run(SharedBackoffState.Slot slot, long now) {
+          slot.retryCount = 0;
+          slot.elapsedTime = 0L;
+          slot.nextEligible = 0L;
+          return 0L;
+        }
+      });
+    }
+  }
+
   /**
    * @return number of retries
    */
@@ -65,6 +173,13 @@ public class Backoff {
    * @return elapsed time (milliseconds)
    */
   public long getElapsedTime() {
+    return TimeUnit.NANOSECONDS.toMillis(elapsedTime);
+  }
+
+  /**
+   * @return elapsed time (nanoseconds)
+   */
+  public long getElapsedTimeNanos() {
     return elapsedTime;
   }
 
@@ -75,8 +190,10 @@ public class Backoff {
     public static final long DEFAULT_MAX_ELAPSED_TIME = 60_000L;
 
     private int maxRetryCount = DEFAULT_MAX_RETRY_COUNT;
-    private long maxElapsedTime = DEFAULT_MAX_ELAPSED_TIME;
+    private long maxElapsedTime = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_ELAPSED_TIME);
     private BackoffAlgorithm algorithm = new ExponentialAlgorithm();
+    private SharedBackoffState sharedState;
+    private String sharedKey;
 
     /**
      * Set backoff algorithm.
@@ -87,6 +204,9 @@ public class Backoff {
      * <li>{@link ExponentialAlgorithm}</li>
      * </ul>
      *
+     * If the algorithm implements {@link NanoBackoffAlgorithm}, intervals are calculated in
+     * nanoseconds.
+     *
      * or e.g.
      * <pre><code>
      *   public long interval(int retryCount, long elapsedTime) {
@@ -131,19 +251,19 @@ public class Backoff {
     }
 
     /**
-     * Set the maximum elapsed time to retry milliseconds time.
+     * Set the maximum elapsed time to retry.
      * The retry is aborted when either the maximum count or the maximum elapsed time is satisfied.
      *
      * The elapsed time must be greater or equal 0.
      *
-     * @param elapsedTime maximum elapsed time in milliseconds
+     * @param elapsedTime maximum elapsed time
      * @param unit the units of time that {@code elapsedTime} is expressed in
      * @return Backoff builder
      * @see #DEFAULT_MAX_ELAPSED_TIME
      * @see #setUnlimitedElapsedTime()
      */
     public Builder setMaxElapsedTime(@IntRange(from = 0) long elapsedTime, TimeUnit unit) {
-      long t = unit.toMillis(elapsedTime);
+      long t = unit.toNanos(elapsedTime);
       if (t < 0) {
         throw new IllegalArgumentException("MaxElapsedTime is invalid. Must be greater or equal 0");
       }
@@ -157,9 +277,36 @@ public class Backoff {
       return this;
     }
 
+    /**
+     * Share the retry count, the elapsed time and the next-eligible time with other processes.
+     * Backoff objects with the same key share one state.
+     *
+     * @param state shared state opened on the file shared by the processes
+     * @param key key of the state, e.g. the host name of the backend
+     * @return Backoff builder
+     * @see SharedBackoffState
+     */
+    public Builder setSharedState(@NonNull SharedBackoffState state, @NonNull String key) {
+      this.sharedState = state;
+      this.sharedKey = key;
+      return this;
+    }
+
     @NonNull public Backoff build() {
-      return new Backoff(algorithm, maxRetryCount, maxElapsedTime);
+      return new Backoff(algorithm, maxRetryCount, maxElapsedTime, sharedState, sharedKey);
+    }
+  }
+
+  /**
+   * Convert nanoseconds to milliseconds truncating as the millisecond API always did. A positive
+   * interval shorter than 1 millisecond is raised to 1 millisecond, so that it never becomes
+   * ABORT.
+   */
+  static long toMillis(long nanos) {
+    if (nanos <= 0L) {
+      return nanos;
     }
+    return Math.max(TimeUnit.NANOSECONDS.toMillis(nanos), 1L);
   }
 
   static void trace(long next, long low, long high) {
@@ -1,5 +1,7 @@
 package com.yuki312.backoff.core;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Default binary exponential backoff interval:
  *
@@ -60,4 +62,17 @@ public class BinaryExponentialAlgorithm extends ExponentialAlgorithm {
   public BinaryExponentialAlgorithm(long interval, long maxInterval, double range) {
     super(interval, 2.0, maxInterval, range);
   }
+
+  /**
+   * Construct Binary exponential algorithm.
+   *
+   * @param interval Wait time until next retry. Sub-millisecond interval is allowed.
+   * @param maxInterval the maximum interval. Truncate time that exceeds
+   * @param range Intervals are randomly chosen within this range. For example, if 0.2 is specified
+   * for range, the interval is selected within the range of ± 20%.
+   * @param unit the units of time that {@code interval} and {@code maxInterval} are expressed in
+   */
+  public BinaryExponentialAlgorithm(long interval, long maxInterval, double range, TimeUnit unit) {
+    super(interval, 2.0, maxInterval, range, unit);
+  }
 }
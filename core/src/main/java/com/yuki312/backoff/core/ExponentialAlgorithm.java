@@ -1,5 +1,7 @@
 package com.yuki312.backoff.core;
 
+import java.util.concurrent.TimeUnit;
+
 import static java.lang.Math.pow;
 
 /**
@@ -20,7 +22,7 @@ import static java.lang.Math.pow;
  * | 15000    | (12000..15000) |
  * | ...      | ...            |
  */
-public class ExponentialAlgorithm implements BackoffAlgorithm {
+public class ExponentialAlgorithm implements NanoBackoffAlgorithm {
 
   /**
    * the default interval
@@ -47,9 +49,9 @@ public class ExponentialAlgorithm implements BackoffAlgorithm {
    */
   public static final double NO_RANGE = 0.0;
 
-  private final long interval;
+  private final long interval; // nanoseconds
   private final double multiplier;
-  private final long maxInterval;
+  private final long maxInterval; // nanoseconds
   private final double range;
 
   public ExponentialAlgorithm() {
@@ -66,6 +68,23 @@ public class ExponentialAlgorithm implements BackoffAlgorithm {
    * for range, the interval is selected within the range of ± 20%.
    */
   public ExponentialAlgorithm(long interval, double multiplier, long maxInterval, double range) {
+    this(interval, multiplier, maxInterval, range, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Construct Exponential algorithm.
+   *
+   * @param interval Wait time until next retry. Sub-millisecond interval is allowed.
+   * @param multiplier the multiplier that increases the interval
+   * @param maxInterval the maximum interval. Truncate time that exceeds
+   * @param range Intervals are randomly chosen within this range. For example, if 0.2 is specified
+   * for range, the interval is selected within the range of ± 20%.
+   * @param unit the units of time that {@code interval} and {@code maxInterval} are expressed in
+   */
+  public ExponentialAlgorithm(long interval, double multiplier, long maxInterval, double range,
+      TimeUnit unit) {
+    interval = unit.toNanos(interval);
+    maxInterval = unit.toNanos(maxInterval);
     if (interval < 1L) {
       throw new IllegalArgumentException("Interval is invalid. Must be greater than 1.");
     }
@@ -91,13 +110,18 @@ public class ExponentialAlgorithm implements BackoffAlgorithm {
   }
 
   @Override public long interval(int retryCount, long elapsedTime) {
+    return Backoff.toMillis(
+        intervalNanos(retryCount, TimeUnit.MILLISECONDS.toNanos(elapsedTime)));
+  }
+
+  @Override public long intervalNanos(int retryCount, long elapsedNanos) {
     long next = (long) Math.min(interval * pow(multiplier, retryCount - 1), maxInterval);
 
     // calculate random range interval
     if (range != NO_RANGE) {
       long low = (long) Math.max(next - (next * range), 1);
       long high = (long) Math.min(next + (next * range), maxInterval);
-      long rnd = low + (int) (Math.random() * ((high - low) + 1));
+      long rnd = low + (long) (Math.random() * ((high - low) + 1));
       if (Backoff.TRACE) Backoff.trace(next, low, high);
       next = rnd;
     }
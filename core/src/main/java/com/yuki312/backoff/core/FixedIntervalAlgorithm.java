@@ -12,14 +12,14 @@ import java.util.concurrent.TimeUnit;
  * | 500      |
  * | ...      |
  */
-public class FixedIntervalAlgorithm implements BackoffAlgorithm {
+public class FixedIntervalAlgorithm implements NanoBackoffAlgorithm {
 
   /**
    * the default interval
    */
   public static final long DEFAULT_INTERVAL = 500L;
 
-  private final long interval; // millisecond
+  private final long interval; // nanoseconds
 
   /**
    * Construct fixed interval algorithm.
@@ -27,17 +27,17 @@ public class FixedIntervalAlgorithm implements BackoffAlgorithm {
    * @see #DEFAULT_INTERVAL
    */
   public FixedIntervalAlgorithm() {
-    this.interval = DEFAULT_INTERVAL;
+    this(DEFAULT_INTERVAL, TimeUnit.MILLISECONDS);
   }
 
   /**
    * Construct fixed interval algorithm.
    *
-   * @param interval Wait time milliseconds until next retry
-   * @param unit the units of time that {@code delayTime} is expressed in
+   * @param interval Wait time until next retry. Sub-millisecond interval is allowed.
+   * @param unit the units of time that {@code interval} is expressed in
    */
   public FixedIntervalAlgorithm(long interval, TimeUnit unit) {
-    long t = unit.toMillis(interval);
+    long t = unit.toNanos(interval);
     if (t < 1L) {
       throw new IllegalArgumentException("Interval is invalid. Must be greater than 1.");
     }
@@ -45,6 +45,10 @@ public class FixedIntervalAlgorithm implements BackoffAlgorithm {
   }
 
   @Override public long interval(int retryCount, long elapsedTime) {
+    return Backoff.toMillis(interval);
+  }
+
+  @Override public long intervalNanos(int retryCount, long elapsedNanos) {
     return interval;
   }
 }
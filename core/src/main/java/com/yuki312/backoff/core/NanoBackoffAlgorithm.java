@@ -0,0 +1,25 @@
+package com.yuki312.backoff.core;
+
+import android.support.annotation.IntRange;
+
+/**
+ * Backoff algorithm with nanosecond resolution.
+ *
+ * {@link Backoff} uses {@link #intervalNanos(int, long)} instead of
+ * {@link BackoffAlgorithm#interval(int, long)} for this algorithm, so intervals shorter than
+ * 1 millisecond can be used.
+ */
+public interface NanoBackoffAlgorithm extends BackoffAlgorithm {
+  /**
+   * Calculate the next interval time in nanoseconds.
+   *
+   * interval is must be greater or equals 1.
+   * When ABORT(0) is returned, the retry process is stopped.
+   *
+   * @param retryCount Current retry count
+   * @param elapsedNanos Current elapsed time in nanoseconds
+   * @return next interval time or ABORT
+   * @see Backoff#ABORT
+   */
+  @IntRange(from = 0L) long intervalNanos(int retryCount, long elapsedNanos);
+}
@@ -1,5 +1,7 @@
 package com.yuki312.backoff.core;
 
+import java.util.concurrent.TimeUnit;
+
 import static java.lang.Math.pow;
 
 /**
@@ -14,7 +16,7 @@ import static java.lang.Math.pow;
  * | (500..15000) |
  * | ...          |
  */
-public class RandomIntervalAlgorithm implements BackoffAlgorithm {
+public class RandomIntervalAlgorithm implements NanoBackoffAlgorithm {
 
   /**
    * the default lower interval
@@ -41,11 +43,11 @@ public class RandomIntervalAlgorithm implements BackoffAlgorithm {
    */
   public static final long DEFAULT_MAX_INTERVAL = 15_000L;
 
-  private final long lowInterval;
-  private final long highInterval;
+  private final long lowInterval; // nanoseconds
+  private final long highInterval; // nanoseconds
   private final double lowMultiplier;
   private final double highMultiplier;
-  private final long maxInterval;
+  private final long maxInterval; // nanoseconds
 
   public RandomIntervalAlgorithm() {
     this(DEFAULT_LOW_INTERVAL, DEFAULT_HIGH_INTERVAL,
@@ -55,6 +57,25 @@ public class RandomIntervalAlgorithm implements BackoffAlgorithm {
 
   public RandomIntervalAlgorithm(long lowInterval, long highInterval,
       double lowMultiplier, double highMultiplier, long maxInterval) {
+    this(lowInterval, highInterval, lowMultiplier, highMultiplier, maxInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Construct random interval algorithm.
+   *
+   * @param lowInterval the lower interval. Sub-millisecond interval is allowed.
+   * @param highInterval the high interval
+   * @param lowMultiplier the multiplier that increases the lower interval
+   * @param highMultiplier the multiplier that increases the high interval
+   * @param maxInterval the maximum interval. Truncate time that exceeds
+   * @param unit the units of time that intervals are expressed in
+   */
+  public RandomIntervalAlgorithm(long lowInterval, long highInterval,
+      double lowMultiplier, double highMultiplier, long maxInterval, TimeUnit unit) {
+    lowInterval = unit.toNanos(lowInterval);
+    highInterval = unit.toNanos(highInterval);
+    maxInterval = unit.toNanos(maxInterval);
     if (lowInterval < 1L) {
       throw new IllegalArgumentException("lowInterval is invalid. Must be greater than 1.");
     }
@@ -89,11 +110,16 @@ public class RandomIntervalAlgorithm implements BackoffAlgorithm {
   }
 
   @Override public long interval(int retryCount, long elapsedTime) {
+    return Backoff.toMillis(
+        intervalNanos(retryCount, TimeUnit.MILLISECONDS.toNanos(elapsedTime)));
+  }
+
+  @Override public long intervalNanos(int retryCount, long elapsedNanos) {
     long low = (long) Math.max(lowInterval * pow(lowMultiplier, retryCount - 1), 1);
     long high = (long) Math.min(highInterval * pow(highMultiplier, retryCount - 1), maxInterval);
 
     // calculate random range interval
-    long rnd = low + (int) (Math.random() * ((high - low) + 1));
+    long rnd = low + (long) (Math.random() * ((high - low) + 1));
     if (Backoff.TRACE) Backoff.trace(rnd, low, high);
 
     return rnd;
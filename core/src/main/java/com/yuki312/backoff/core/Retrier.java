@@ -0,0 +1,158 @@
+package com.yuki312.backoff.core;
+
+import android.support.annotation.NonNull;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Retry synchronous operation on the caller thread with backoff interval.
+ *
+ * <pre><code>
+ *   User user = new Retrier(backoff).call(new Callable&lt;User&gt;() {
+ *     public User call() throws Exception {
+ *       return api.user();
+ *     }
+ *   });
+ * </code></pre>
+ *
+ * The caller thread waits with {@link LockSupport#parkNanos(Object, long)} and holds no monitor,
+ * so a virtual thread unmounts from its carrier thread while waiting.
+ */
+public class Retrier {
+
+  @NonNull private final Backoff backoff;
+
+  private Filter filter = new Filter() {
+    @Override public boolean test(Exception e) {
+      return true;
+    }
+  };
+
+  private OnRetry onRetry = new OnRetry() {
+    @Override public void onRetry(Exception e, int retryCount) {
+      // no-op
+    }
+  };
+
+  private OnAbort onAbort = new OnAbort() {
+    @Override public void onAbort(Exception e) {
+      // no-op
+    }
+  };
+
+  /**
+   * Construct Retrier.
+   *
+   * @param backoff Backoff object with algorithm specified. You can build the back-off object
+   * using the {@link Backoff.Builder}.
+   */
+  public Retrier(@NonNull Backoff backoff) {
+    this.backoff = backoff;
+  }
+
+  /**
+   * Retry only the exceptions that satisfy a specified predicate.
+   *
+   * @param filter a function that evaluates each exception, returning {@code true} if it passes
+   * the filter
+   * @return Retrier instance
+   */
+  public Retrier filter(@NonNull Filter filter) {
+    this.filter = filter;
+    return this;
+  }
+
+  /**
+   * Set callback function called every time before retry processing
+   *
+   * @param onRetry action to be executed at each retry
+   * @return Retrier instance
+   */
+  public Retrier doOnRetry(@NonNull OnRetry onRetry) {
+    this.onRetry = onRetry;
+    return this;
+  }
+
+  /**
+   * Set callback function called when abort retry
+   *
+   * @param onAbort action to be executed when abort
+   * @return Retrier instance
+   */
+  public Retrier doOnAbort(@NonNull OnAbort onAbort) {
+    this.onAbort = onAbort;
+    return this;
+  }
+
+  /**
+   * Call the operation and retry it with backoff interval while it throws an exception.
+   *
+   * @param callable operation to be called
+   * @return result of the operation
+   * @throws InterruptedException if the caller thread is interrupted while waiting. The operation
+   * is not retried when it throws InterruptedException.
+   * @throws Exception the last exception thrown by the operation when the retry is aborted, or
+   * the exception that does not pass the filter
+   */
+  public <V> V call(@NonNull Callable<V> callable) throws Exception {
+    while (true) {
+      try {
+        return callable.call();
+      } catch (InterruptedException e) {
+        throw e;
+      } catch (Exception e) {
+        if (!filter.test(e)) {
+          throw e;
+        }
+        long interval = backoff.intervalNanos();
+        if (interval == Backoff.ABORT) {
+          onAbort.onAbort(e);
+          throw e;
+        }
+        onRetry.onRetry(e, backoff.getRetryCount());
+        park(interval);
+      }
+    }
+  }
+
+  private void park(long nanos) throws InterruptedException {
+    final long deadline = System.nanoTime() + nanos;
+    while (true) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      if (nanos <= 0L) {
+        return;
+      }
+      // parkNanos may return spuriously, so wait again for the remaining time
+      LockSupport.parkNanos(this, nanos);
+      nanos = deadline - System.nanoTime();
+    }
+  }
+
+  public interface Filter {
+
+    /**
+     * @param e exception thrown by the operation
+     * @return {@code true} if the exception is retried
+     */
+    boolean test(@NonNull Exception e) throws Exception;
+  }
+
+  public interface OnRetry {
+
+    /**
+     * @param e exception thrown by the operation
+     * @param retryCount number of retries including this one
+     */
+    void onRetry(@NonNull Exception e, int retryCount) throws Exception;
+  }
+
+  public interface OnAbort {
+
+    /**
+     * @param e the last exception thrown by the operation
+     */
+    void onAbort(@NonNull Exception e) throws Exception;
+  }
+}
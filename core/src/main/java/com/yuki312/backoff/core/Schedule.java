@@ -0,0 +1,182 @@
+package com.yuki312.backoff.core;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compose backoff algorithms into one schedule.
+ *
+ * <pre><code>
+ *   // 3 fast fixed retries, then exponential, then a long fixed tail
+ *   BackoffAlgorithm algorithm = Schedule
+ *       .take(new FixedIntervalAlgorithm(100, TimeUnit.MILLISECONDS), 3)
+ *       .then(new ExponentialAlgorithm(500, 2.0, 8000, NO_RANGE), 5)
+ *       .then(new FixedIntervalAlgorithm(30, TimeUnit.SECONDS), 1)
+ *       .withJitter(0.2)
+ *       .compile();
+ * </code></pre>
+ *
+ * Each algorithm is sampled when it is taken, and {@link #compile()} flattens the schedule into an
+ * interval table. So the compiled algorithm costs the same per retry as a fixed interval
+ * algorithm. The last interval of the table is repeated after the table is exhausted.
+ *
+ * Random algorithms are sampled only once. Use algorithms without random range and add jitter to
+ * the whole schedule by {@link #withJitter(double)}.
+ */
+public final class Schedule {
+
+  private final long[] intervals; // nanoseconds
+  private final long[] maxIntervals; // nanoseconds, the cap of the stage each interval came from
+  private final double range;
+
+  private Schedule(long[] intervals, long[] maxIntervals, double range) {
+    this.intervals = intervals;
+    this.maxIntervals = maxIntervals;
+    this.range = range;
+  }
+
+  /**
+   * Create schedule from the first {@code count} intervals of the algorithm.
+   * If the algorithm returns ABORT, the schedule ends with ABORT.
+   *
+   * @param algorithm the algorithm to be sampled
+   * @param count number of retries taken from the algorithm
+   * @return new schedule
+   */
+  @NonNull
+  public static Schedule take(@NonNull BackoffAlgorithm algorithm, @IntRange(from = 1) int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Count is invalid. Must be greater than 1.");
+    }
+
+    long[] intervals = new long[count];
+    long elapsed = 0L;
+    int size = 0;
+    while (size < count) {
+      long next;
+      if (algorithm instanceof NanoBackoffAlgorithm) {
+        next = ((NanoBackoffAlgorithm) algorithm).intervalNanos(size + 1, elapsed);
+      } else {
+        next = TimeUnit.MILLISECONDS.toNanos(
+            algorithm.interval(size + 1, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+      }
+      if (next < 0) {
+        throw new IllegalStateException("Interval is invalid. Must be greater than 0.");
+      }
+
+      intervals[size++] = next;
+      if (next == Backoff.ABORT) {
+        break;
+      }
+      elapsed += next;
+    }
+    long[] maxIntervals = new long[size];
+    Arrays.fill(maxIntervals, Long.MAX_VALUE);
+    return new Schedule(
+        Arrays.copyOf(intervals, size), maxIntervals, ExponentialAlgorithm.NO_RANGE);
+  }
+
+  /**
+   * Append the first {@code count} intervals of the algorithm to this schedule.
+   *
+   * @param algorithm the algorithm to be sampled
+   * @param count number of retries taken from the algorithm
+   * @return new schedule
+   * @see #take(BackoffAlgorithm, int)
+   */
+  @NonNull
+  public Schedule then(@NonNull BackoffAlgorithm algorithm, @IntRange(from = 1) int count) {
+    return then(take(algorithm, count));
+  }
+
+  /**
+   * Append the schedule to this schedule.
+   * The jitter of this schedule is kept, and the jitter of {@code next} is ignored.
+   * Each interval keeps the cap of the schedule it came from.
+   *
+   * @param next the schedule following this schedule
+   * @return new schedule
+   */
+  @NonNull
+  public Schedule then(@NonNull Schedule next) {
+    return new Schedule(
+        join(intervals, next.intervals), join(maxIntervals, next.maxIntervals), range);
+  }
+
+  private static long[] join(long[] first, long[] second) {
+    long[] joined = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, joined, first.length, second.length);
+    return joined;
+  }
+
+  /**
+   * Truncate intervals that exceed the maximum interval. Jitter never exceeds it either.
+   *
+   * @param maxInterval the maximum interval
+   * @param unit the units of time that {@code maxInterval} is expressed in
+   * @return new schedule
+   */
+  @NonNull
+  public Schedule capped(long maxInterval, @NonNull TimeUnit unit) {
+    long max = unit.toNanos(maxInterval);
+    if (max < 1L) {
+      throw new IllegalArgumentException("maxInterval is invalid. Must be greater than 1.");
+    }
+
+    long[] capped = intervals.clone();
+    long[] maxIntervals = this.maxIntervals.clone();
+    for (int i = 0; i < capped.length; i++) {
+      capped[i] = Math.min(capped[i], max);
+      maxIntervals[i] = Math.min(maxIntervals[i], max);
+    }
+    return new Schedule(capped, maxIntervals, range);
+  }
+
+  /**
+   * Multiply all intervals by the factor.
+   *
+   * @param factor the multiplier of intervals
+   * @return new schedule
+   */
+  @NonNull
+  public Schedule scaled(double factor) {
+    if (factor <= 0.0) {
+      throw new IllegalArgumentException("Factor is invalid. Must be greater than 0.0.");
+    }
+
+    long[] scaled = intervals.clone();
+    for (int i = 0; i < scaled.length; i++) {
+      if (scaled[i] != Backoff.ABORT) {
+        scaled[i] = (long) Math.max(Math.min(scaled[i] * factor, maxIntervals[i]), 1);
+      }
+    }
+    return new Schedule(scaled, maxIntervals, range);
+  }
+
+  /**
+   * Choose intervals randomly within the range, once per retry.
+   *
+   * @param range Intervals are randomly chosen within this range. For example, if 0.2 is specified
+   * for range, the interval is selected within the range of ± 20%.
+   * @return new schedule
+   */
+  @NonNull
+  public Schedule withJitter(double range) {
+    if (range < 0.0 || 1.0 <= range) {
+      throw new IllegalArgumentException(
+          "Range is invalid. Must be greater or equal 0.0 and lower than 1.0.");
+    }
+
+    return new Schedule(intervals, maxIntervals, range);
+  }
+
+  /**
+   * @return the algorithm that looks up the interval table
+   */
+  @NonNull
+  public ScheduleAlgorithm compile() {
+    return new ScheduleAlgorithm(intervals.clone(), maxIntervals.clone(), range);
+  }
+}
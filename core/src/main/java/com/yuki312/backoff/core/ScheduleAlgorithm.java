@@ -0,0 +1,48 @@
+package com.yuki312.backoff.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interval table compiled from {@link Schedule}.
+ *
+ * | Interval    |
+ * | ----------- |
+ * | intervals[0]|
+ * | intervals[1]|
+ * | ...         |
+ * | intervals[n]| *The last interval is repeated
+ * | intervals[n]|
+ */
+public final class ScheduleAlgorithm implements NanoBackoffAlgorithm {
+
+  private final long[] intervals; // nanoseconds
+  private final long[] maxIntervals; // nanoseconds
+  private final double range;
+
+  ScheduleAlgorithm(long[] intervals, long[] maxIntervals, double range) {
+    this.intervals = intervals;
+    this.maxIntervals = maxIntervals;
+    this.range = range;
+  }
+
+  @Override public long interval(int retryCount, long elapsedTime) {
+    return Backoff.toMillis(
+        intervalNanos(retryCount, TimeUnit.MILLISECONDS.toNanos(elapsedTime)));
+  }
+
+  @Override public long intervalNanos(int retryCount, long elapsedNanos) {
+    int i = Math.min(retryCount, intervals.length) - 1;
+    long next = intervals[i];
+
+    // calculate random range interval
+    if (range != ExponentialAlgorithm.NO_RANGE && next != Backoff.ABORT) {
+      long low = (long) Math.max(next - (next * range), 1);
+      long high = (long) Math.min(next + (next * range), maxIntervals[i]);
+      long rnd = low + (long) (Math.random() * ((high - low) + 1));
+      if (Backoff.TRACE) Backoff.trace(next, low, high);
+      next = rnd;
+    }
+
+    return next;
+  }
+}
@@ -0,0 +1,309 @@
+package com.yuki312.backoff.core;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Backoff state shared by processes on the same machine through a memory-mapped file.
+ *
+ * <pre><code>
+ *   SharedBackoffState state = new SharedBackoffState(new File(dir, "backoff"), 64);
+ *   Backoff backoff = new Backoff.Builder()
+ *       .setAlgorithm(new ExponentialAlgorithm())
+ *       .setSharedState(state, "api.example.com")
+ *       .build();
+ * </code></pre>
+ *
+ * Each key has a fixed-offset slot that holds the retry count, the elapsed time and the
+ * next-eligible time. Slots are updated under a file lock of the slot region, so all processes
+ * see one retry count and one next-eligible time for each key.
+ *
+ * The state of a key expires when no retry is scheduled for the quiet window after the last
+ * next-eligible time, so a key exhausted by an outage recovers without {@link Backoff#reset()}.
+ */
+public class SharedBackoffState implements Closeable {
+
+  public static final long DEFAULT_QUIET_WINDOW = 60_000L;
+
+  /**
+   * Wall clock shared by the processes.
+   */
+  public interface Clock {
+
+    Clock SYSTEM = new Clock() {
+      @Override public long currentTimeMillis() {
+        return System.currentTimeMillis();
+      }
+    };
+
+    /**
+     * @return current time (epoch milliseconds)
+     */
+    long currentTimeMillis();
+  }
+
+  private static final int MAGIC = 0x52584230; // "RXB0"
+  private static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 16;
+  private static final int SLOT_SIZE = 32;
+
+  // slot layout
+  private static final int KEY_HASH = 0; // long, 0 is an empty slot
+  private static final int RETRY_COUNT = 8; // int
+  private static final int ELAPSED_TIME = 16; // long, nanoseconds
+  private static final int NEXT_ELIGIBLE = 24; // long, epoch milliseconds
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /**
+   * File locks are held by the whole JVM, so threads in this process are serialized by a lock per
+   * file. A lock is removed when all shared states of the file are closed. ReentrantLock does not
+   * pin the carrier thread of a virtual thread while waiting for the file lock.
+   */
+  private static final Map<String, FileMonitor> MONITORS = new HashMap<>();
+
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final String path;
+  private final ReentrantLock lock;
+  private boolean closed = false;
+  private final int slots;
+  private final long quietWindow; // milliseconds
+  private final Clock clock;
+
+  /**
+   * Open the shared state with the default quiet window.
+   *
+   * @see #SharedBackoffState(File, int, long, TimeUnit, Clock)
+   * @see #DEFAULT_QUIET_WINDOW
+   */
+  public SharedBackoffState(@NonNull File file, @IntRange(from = 1) int slots)
+      throws IOException {
+    this(file, slots, DEFAULT_QUIET_WINDOW, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Open the shared state.
+   *
+   * @see #SharedBackoffState(File, int, long, TimeUnit, Clock)
+   */
+  public SharedBackoffState(@NonNull File file, @IntRange(from = 1) int slots,
+      @IntRange(from = 0) long quietWindow, @NonNull TimeUnit unit) throws IOException {
+    this(file, slots, quietWindow, unit, Clock.SYSTEM);
+  }
+
+  /**
+   * Open the shared state. The file is created if it does not exist.
+   *
+   * @param file file shared by the processes
+   * @param slots the number of keys the file can hold. All processes must use the same number.
+   * @param quietWindow time after the last next-eligible time until the state of the key expires
+   * @param unit the units of time that {@code quietWindow} is expressed in
+   * @param clock clock of the next-eligible time
+   * @throws IOException if the file can not be opened, or it is not a shared state of the same
+   * number of slots
+   */
+  public SharedBackoffState(@NonNull File file, @IntRange(from = 1) int slots,
+      @IntRange(from = 0) long quietWindow, @NonNull TimeUnit unit, @NonNull Clock clock)
+      throws IOException {
+    if (slots < 1) {
+      throw new IllegalArgumentException("Slots is invalid. Must be greater than 1.");
+    }
+
+    long window = unit.toMillis(quietWindow);
+    if (window < 0L) {
+      throw new IllegalArgumentException("QuietWindow is invalid. Must be greater or equal 0.");
+    }
+
+    this.slots = slots;
+    this.quietWindow = window;
+    this.clock = clock;
+    this.path = file.getCanonicalPath();
+    this.lock = acquire(path);
+    try {
+      this.file = new RandomAccessFile(file, "rw");
+    } catch (IOException e) {
+      release(path);
+      throw e;
+    }
+    this.channel = this.file.getChannel();
+    try {
+      long size = HEADER_SIZE + (long) slots * SLOT_SIZE;
+      lock.lock();
+      try {
+        FileLock fileLock = channel.lock(0L, HEADER_SIZE, false);
+        try {
+          boolean created = channel.size() == 0L;
+          if (created) {
+            this.file.setLength(size);
+          }
+          buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+          if (created) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, slots);
+          } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("File is invalid. Must be a shared backoff state.");
+          } else if (buffer.getInt(8) != slots) {
+            throw new IOException("Slots is invalid. Must be " + buffer.getInt(8) + ".");
+          }
+        } finally {
+          fileLock.release();
+        }
+      } finally {
+        lock.unlock();
+      }
+    } catch (IOException e) {
+      this.file.close();
+      release(path);
+      throw e;
+    }
+  }
+
+  @Override public void close() throws IOException {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        file.close();
+      } finally {
+        release(path);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Run the transaction on the slot of the key. The slot is locked while running.
+   *
+   * @return the value returned by the transaction
+   */
+  long update(String key, Transaction transaction) {
+    long hash = hash(key);
+    lock.lock();
+    try {
+      try {
+        // linear probing. A slot is never released once claimed by a key
+        int start = (int) ((hash & Long.MAX_VALUE) % slots);
+        for (int i = 0; i < slots; i++) {
+          int offset = HEADER_SIZE + ((start + i) % slots) * SLOT_SIZE;
+          FileLock fileLock = channel.lock(offset, SLOT_SIZE, false);
+          try {
+            long h = buffer.getLong(offset + KEY_HASH);
+            if (h != 0L && h != hash) {
+              continue;
+            }
+            if (h == 0L) {
+              buffer.putLong(offset + KEY_HASH, hash);
+            }
+            return run(offset, transaction);
+          } finally {
+            fileLock.release();
+          }
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Shared state is unavailable.", e);
+      }
+    } finally {
+      lock.unlock();
+    }
+    throw new IllegalStateException("Shared state is full. Must have more slots than keys.");
+  }
+
+  private long run(int offset, Transaction transaction) {
+    long now = clock.currentTimeMillis();
+    Slot slot = new Slot();
+    slot.retryCount = buffer.getInt(offset + RETRY_COUNT);
+    slot.elapsedTime = buffer.getLong(offset + ELAPSED_TIME);
+    slot.nextEligible = buffer.getLong(offset + NEXT_ELIGIBLE);
+    if (slot.nextEligible != 0L && now - slot.nextEligible >= quietWindow) {
+      // no retry for the quiet window, start over as the first retry
+      slot.retryCount = 0;
+      slot.elapsedTime = 0L;
+      slot.nextEligible = 0L;
+    }
+
+    long result = transaction.run(slot, now);
+
+    buffer.putInt(offset + RETRY_COUNT, slot.retryCount);
+    buffer.putLong(offset + ELAPSED_TIME, slot.elapsedTime);
+    buffer.putLong(offset + NEXT_ELIGIBLE, slot.nextEligible);
+    return result;
+  }
+
+  /**
+   * FNV-1a 64-bit hash of the key. 0 is reserved for an empty slot.
+   */
+  static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    return hash == 0L ? 1L : hash;
+  }
+
+  private static ReentrantLock acquire(String path) {
+    synchronized (MONITORS) {
+      FileMonitor monitor = MONITORS.get(path);
+      if (monitor == null) {
+        monitor = new FileMonitor();
+        MONITORS.put(path, monitor);
+      }
+      monitor.refs++;
+      return monitor.lock;
+    }
+  }
+
+  private static void release(String path) {
+    synchronized (MONITORS) {
+      FileMonitor monitor = MONITORS.get(path);
+      if (monitor != null && --monitor.refs == 0) {
+        MONITORS.remove(path);
+      }
+    }
+  }
+
+  /**
+   * Lock of a file and the number of shared states opened on it.
+   */
+  private static class FileMonitor {
+
+    final ReentrantLock lock = new ReentrantLock();
+    int refs;
+  }
+
+  static class Slot {
+
+    int retryCount;
+    long elapsedTime; // nanoseconds
+    long nextEligible; // epoch milliseconds
+  }
+
+  interface Transaction {
+
+    /**
+     * @param slot state of the key. Changes are written back to the file.
+     * @param now current time of the clock (epoch milliseconds)
+     */
+    long run(Slot slot, long now);
+  }
+}
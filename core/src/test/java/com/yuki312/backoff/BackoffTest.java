@@ -1,10 +1,22 @@
 package com.yuki312.backoff;
 
 import com.yuki312.backoff.core.Backoff;
+import com.yuki312.backoff.core.BackoffAlgorithm;
 import com.yuki312.backoff.core.BinaryExponentialAlgorithm;
 import com.yuki312.backoff.core.ExponentialAlgorithm;
 import com.yuki312.backoff.core.FixedIntervalAlgorithm;
 import com.yuki312.backoff.core.RandomIntervalAlgorithm;
+import com.yuki312.backoff.core.Retrier;
+import com.yuki312.backoff.core.Schedule;
+import com.yuki312.backoff.core.ScheduleAlgorithm;
+import com.yuki312.backoff.core.SharedBackoffState;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -18,6 +30,7 @@ import static com.yuki312.backoff.core.RandomIntervalAlgorithm.DEFAULT_LOW_INTER
 import static com.yuki312.backoff.core.RandomIntervalAlgorithm.DEFAULT_LOW_MULTIPLIER;
 import static java.lang.Math.pow;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 @RunWith(JUnit4.class)
 public class BackoffTest {
@@ -150,4 +163,364 @@ public class BackoffTest {
       assertThat(backoff.interval()).isBetween(low, high);
     }
   }
+
+  @Test
+  public void fixedInterval_subMillisecond() {
+    Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm(50L, TimeUnit.MICROSECONDS))
+        .setMaxElapsedTime(200L, TimeUnit.MICROSECONDS)
+        .setUnlimitedRetryCount()
+        .build();
+    for (int i = 1; i <= 4; i++) {
+      assertThat(backoff.intervalNanos()).isEqualTo(50_000L);
+    }
+    assertThat(backoff.getElapsedTimeNanos()).isEqualTo(200_000L);
+    assertThat(backoff.intervalNanos()).isEqualTo(Backoff.ABORT);
+  }
+
+  @Test
+  public void binaryExponential_subMillisecond() {
+    /*
+     * | Interval (ns) |
+     * | ------------- |
+     * | 50,000        |
+     * | 100,000       |
+     * | 200,000       |
+     * | 400,000       |
+     * | 800,000       |
+     * | 1,000,000     |
+     */
+    Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(new BinaryExponentialAlgorithm(50L, 1000L, NO_RANGE, TimeUnit.MICROSECONDS))
+        .setUnlimitedElapsedTime()
+        .setUnlimitedRetryCount()
+        .build();
+    for (int i = 1; i < 12; i++) {
+      long t = (long) Math.min(50_000L * pow(2, i - 1), 1_000_000L);
+      assertThat(backoff.intervalNanos()).isEqualTo(t);
+    }
+  }
+
+  @Test
+  public void interval_roundUpToMillisecond() {
+    Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm(50L, TimeUnit.MICROSECONDS))
+        .build();
+    assertThat(backoff.interval()).isEqualTo(1L);
+  }
+
+  @Test
+  public void interval_truncateToMillisecond() {
+    // same values as the millisecond API before intervals were calculated in nanoseconds
+    ExponentialAlgorithm algorithm = new ExponentialAlgorithm(500L, 1.5, 15_000L, NO_RANGE);
+    Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(algorithm)
+        .setUnlimitedElapsedTime()
+        .build();
+    long[] expected = { 500L, 750L, 1125L, 1687L, 2531L, 3796L };
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(algorithm.interval(i + 1, 0L)).isEqualTo(expected[i]);
+      assertThat(backoff.interval()).isEqualTo(expected[i]);
+    }
+
+    // the truncated intervals are counted, 500 + 750 + 1125 + 1687 = 4062
+    backoff = new Backoff.Builder()
+        .setAlgorithm(algorithm)
+        .setMaxElapsedTime(4062L, TimeUnit.MILLISECONDS)
+        .build();
+    assertThat(backoff.interval()).isEqualTo(500L);
+    assertThat(backoff.interval()).isEqualTo(750L);
+    assertThat(backoff.interval()).isEqualTo(1125L);
+    assertThat(backoff.interval()).isEqualTo(1687L);
+    assertThat(backoff.interval()).isEqualTo(Backoff.ABORT);
+  }
+
+  @Test
+  public void schedule() {
+    /*
+     * | Interval |
+     * | -------- |
+     * | 100      | fixed x 2
+     * | 100      |
+     * | 500      | binary exponential x 3
+     * | 1000     |
+     * | 1500     | *capped
+     * | 1500     | fixed tail (capped)
+     * | 1500     |
+     * | ...      |
+     */
+    Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(Schedule
+            .take(new FixedIntervalAlgorithm(100L, TimeUnit.MILLISECONDS), 2)
+            .then(new BinaryExponentialAlgorithm(DEFAULT_INTERVAL, Long.MAX_VALUE, NO_RANGE), 3)
+            .then(new FixedIntervalAlgorithm(5L, TimeUnit.SECONDS), 1)
+            .capped(1500L, TimeUnit.MILLISECONDS)
+            .compile())
+        .setUnlimitedElapsedTime()
+        .setUnlimitedRetryCount()
+        .build();
+    long[] expected = { 100L, 100L, 500L, 1000L, 1500L, 1500L, 1500L, 1500L };
+    for (long t : expected) {
+      assertThat(backoff.interval()).isEqualTo(t);
+    }
+  }
+
+  @Test
+  public void schedule_scaledWithJitter() {
+    Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(Schedule
+            .take(new BinaryExponentialAlgorithm(DEFAULT_INTERVAL, Long.MAX_VALUE, NO_RANGE), 4)
+            .scaled(2.0)
+            .withJitter(0.2)
+            .compile())
+        .setUnlimitedElapsedTime()
+        .setUnlimitedRetryCount()
+        .build();
+    for (int i = 1; i < 12; i++) {
+      long t = (long) (2 * DEFAULT_INTERVAL * pow(2, Math.min(i, 4) - 1));
+      assertThat(backoff.interval()).isBetween((long) (t * 0.8), (long) (t * 1.2));
+    }
+  }
+
+  @Test
+  public void schedule_cappedStageWithJitter() {
+    ScheduleAlgorithm algorithm = Schedule
+        .take(new FixedIntervalAlgorithm(2L, TimeUnit.SECONDS), 2)
+        .capped(1L, TimeUnit.SECONDS)
+        .then(new FixedIntervalAlgorithm(5L, TimeUnit.SECONDS), 1)
+        .withJitter(0.2)
+        .compile();
+    for (int i = 0; i < 100; i++) {
+      // jitter of the capped stage never exceeds its cap
+      assertThat(algorithm.interval(1, 0L)).isBetween(800L, 1000L);
+      assertThat(algorithm.interval(2, 0L)).isBetween(800L, 1000L);
+      assertThat(algorithm.interval(3, 0L)).isBetween(4000L, 6000L);
+    }
+  }
+
+  @Test
+  public void schedule_abort() {
+    Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(Schedule
+            .take(new FixedIntervalAlgorithm(), 2)
+            .then(new BackoffAlgorithm() {
+              @Override public long interval(int retryCount, long elapsedTime) {
+                return Backoff.ABORT;
+              }
+            }, 1)
+            .compile())
+        .setUnlimitedRetryCount()
+        .build();
+    assertThat(backoff.interval()).isEqualTo(DEFAULT_INTERVAL);
+    assertThat(backoff.interval()).isEqualTo(DEFAULT_INTERVAL);
+    assertThat(backoff.interval()).isEqualTo(Backoff.ABORT);
+  }
+
+  @Test
+  public void retrier() throws Exception {
+    final AtomicInteger count = new AtomicInteger(0);
+    Retrier retrier = new Retrier(new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm(1L, TimeUnit.MILLISECONDS))
+        .setMaxRetryCount(5)
+        .build());
+    int result = retrier.call(new Callable<Integer>() {
+      @Override public Integer call() throws Exception {
+        if (count.incrementAndGet() < 3) {
+          throw new Exception("error " + count.get());
+        }
+        return count.get();
+      }
+    });
+    assertThat(result).isEqualTo(3);
+  }
+
+  @Test
+  public void retrier_abort() {
+    final AtomicInteger count = new AtomicInteger(0);
+    Retrier retrier = new Retrier(new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm(1L, TimeUnit.MILLISECONDS))
+        .setMaxRetryCount(2)
+        .build());
+    try {
+      retrier.call(new Callable<Integer>() {
+        @Override public Integer call() throws Exception {
+          throw new Exception("error " + count.incrementAndGet());
+        }
+      });
+      fail();
+    } catch (Exception e) {
+      assertThat(e).hasMessage("error 3"); // try(1 time) + retry(2 times)
+    }
+  }
+
+  @Test
+  public void retrier_hooks() throws Exception {
+    final AtomicInteger count = new AtomicInteger(0);
+    final List<Integer> retries = new ArrayList<>();
+    final AtomicInteger aborted = new AtomicInteger(0);
+    Retrier retrier = new Retrier(new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm(1L, TimeUnit.MILLISECONDS))
+        .setMaxRetryCount(5)
+        .build())
+        .filter(new Retrier.Filter() {
+          @Override public boolean test(Exception e) {
+            return !(e instanceof IllegalArgumentException);
+          }
+        })
+        .doOnRetry(new Retrier.OnRetry() {
+          @Override public void onRetry(Exception e, int retryCount) {
+            retries.add(retryCount);
+          }
+        })
+        .doOnAbort(new Retrier.OnAbort() {
+          @Override public void onAbort(Exception e) {
+            aborted.incrementAndGet();
+          }
+        });
+
+    try {
+      retrier.call(new Callable<Integer>() {
+        @Override public Integer call() throws Exception {
+          if (count.incrementAndGet() < 3) {
+            throw new IllegalStateException("error " + count.get());
+          }
+          throw new IllegalArgumentException("not retryable");
+        }
+      });
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("not retryable");
+    }
+    assertThat(count.get()).isEqualTo(3);
+    assertThat(retries).containsExactly(1, 2);
+    assertThat(aborted.get()).isEqualTo(0); // filtered exceptions are not aborted
+  }
+
+  @Test
+  public void retrier_interrupt() {
+    final AtomicInteger count = new AtomicInteger(0);
+    Retrier retrier = new Retrier(new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm(1L, TimeUnit.HOURS))
+        .setUnlimitedElapsedTime()
+        .build());
+    Thread.currentThread().interrupt();
+    try {
+      retrier.call(new Callable<Integer>() {
+        @Override public Integer call() throws Exception {
+          throw new Exception("error " + count.incrementAndGet());
+        }
+      });
+      fail();
+    } catch (Exception e) {
+      assertThat(e).isInstanceOf(InterruptedException.class);
+    }
+    assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    assertThat(count.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void sharedState() throws Exception {
+    final File file = tempFile();
+    final ManualClock clock = new ManualClock();
+
+    // each state is opened like another process
+    SharedBackoffState state1 = new SharedBackoffState(file, 4, 1L, TimeUnit.SECONDS, clock);
+    SharedBackoffState state2 = new SharedBackoffState(file, 4, 1L, TimeUnit.SECONDS, clock);
+    try {
+      Backoff backoff1 = sharedBackoff(state1, "key");
+      Backoff backoff2 = sharedBackoff(state2, "key");
+      Backoff other = sharedBackoff(state2, "other");
+
+      assertThat(backoff1.interval()).isEqualTo(50L);
+      assertThat(backoff1.getRetryCount()).isEqualTo(1);
+
+      // waits for the retry of the other process without counting a retry
+      clock.now += 20L;
+      assertThat(backoff2.interval()).isEqualTo(30L);
+      assertThat(backoff2.getRetryCount()).isEqualTo(1);
+      assertThat(other.interval()).isEqualTo(50L);
+      assertThat(other.getRetryCount()).isEqualTo(1);
+
+      clock.now += 30L;
+      assertThat(backoff2.interval()).isEqualTo(50L);
+      assertThat(backoff2.getRetryCount()).isEqualTo(2);
+
+      clock.now += 50L;
+      assertThat(backoff1.interval()).isEqualTo(Backoff.ABORT); // maxRetryCount is 2
+
+      backoff2.reset();
+      assertThat(backoff1.interval()).isEqualTo(50L);
+      assertThat(backoff1.getRetryCount()).isEqualTo(1);
+    } finally {
+      state1.close();
+      state2.close();
+    }
+
+    try {
+      new SharedBackoffState(file, 8);
+      fail();
+    } catch (IOException e) {
+      assertThat(e).hasMessage("Slots is invalid. Must be 4.");
+    }
+  }
+
+  @Test
+  public void sharedState_recover() throws Exception {
+    final File file = tempFile();
+    final ManualClock clock = new ManualClock();
+
+    SharedBackoffState state = new SharedBackoffState(file, 4, 1L, TimeUnit.SECONDS, clock);
+    try {
+      Backoff backoff = sharedBackoff(state, "key");
+      assertThat(backoff.interval()).isEqualTo(50L);
+      clock.now += 50L;
+      assertThat(backoff.interval()).isEqualTo(50L);
+      clock.now += 50L;
+      for (int i = 0; i < 10; i++) {
+        assertThat(backoff.interval()).isEqualTo(Backoff.ABORT);
+      }
+    } finally {
+      state.close();
+    }
+
+    // the exhausted key is kept after reopening, and aborts do not count retries
+    state = new SharedBackoffState(file, 4, 1L, TimeUnit.SECONDS, clock);
+    try {
+      Backoff backoff = sharedBackoff(state, "key");
+      assertThat(backoff.interval()).isEqualTo(Backoff.ABORT);
+      assertThat(backoff.getRetryCount()).isEqualTo(3); // maxRetryCount + 1
+
+      // a new backoff retries again after the quiet window
+      clock.now += 1000L;
+      backoff = sharedBackoff(state, "key");
+      assertThat(backoff.interval()).isEqualTo(50L);
+      assertThat(backoff.getRetryCount()).isEqualTo(1);
+    } finally {
+      state.close();
+    }
+  }
+
+  private static File tempFile() throws IOException {
+    File file = File.createTempFile("backoff", null);
+    assertThat(file.delete()).isTrue();
+    file.deleteOnExit();
+    return file;
+  }
+
+  private static Backoff sharedBackoff(SharedBackoffState state, String key) {
+    return new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm(50L, TimeUnit.MILLISECONDS))
+        .setMaxRetryCount(2)
+        .setSharedState(state, key)
+        .build();
+  }
+
+  private static class ManualClock implements SharedBackoffState.Clock {
+
+    long now = 1_000_000L;
+
+    @Override public long currentTimeMillis() {
+      return now;
+    }
+  }
 }
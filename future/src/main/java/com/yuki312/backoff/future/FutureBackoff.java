@@ -0,0 +1,263 @@
+package com.yuki312.backoff.future;
+
+import android.support.annotation.NonNull;
+import com.yuki312.backoff.core.Backoff;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retry asynchronous operations with backoff interval.
+ *
+ * <pre><code>
+ *   CompletableFuture&lt;User&gt; user = new FutureBackoff(backoff)
+ *       .filter(e -&gt; e instanceof IOException)
+ *       .retry(() -&gt; api.user());
+ * </code></pre>
+ *
+ * The next attempt is scheduled on the {@link RetryTimer}, so no thread is blocked while waiting.
+ * When the interval elapsed, the attempt runs on the executor, so an operation that blocks before
+ * returning its stage never stalls the timer. Cancelling the returned future cancels the scheduled
+ * attempt.
+ */
+public class FutureBackoff {
+
+  @NonNull private final Backoff backoff;
+  @NonNull private final RetryTimer timer;
+  @NonNull private final Executor executor;
+
+  private Predicate<Throwable> filter = e -> true;
+
+  private BiConsumer<Throwable, Integer> onRetry = (e, retry) -> {
+    // no-op
+  };
+
+  private Consumer<Throwable> onAbort = e -> {
+    // no-op
+  };
+
+  /**
+   * Construct FutureBackoff that waits on the shared timer thread, and runs the attempts on
+   * {@link ForkJoinPool#commonPool()}.
+   *
+   * @param backoff Backoff object with algorithm specified. You can build the back-off object
+   * using the {@link Backoff.Builder}.
+   */
+  public FutureBackoff(@NonNull Backoff backoff) {
+    this(backoff, SharedTimer.INSTANCE);
+  }
+
+  /**
+   * Construct FutureBackoff that waits and runs the attempts on the executor.
+   *
+   * @param backoff Backoff object with algorithm specified. You can build the back-off object
+   * using the {@link Backoff.Builder}.
+   * @param executor Executor used in backoff interval
+   */
+  public FutureBackoff(@NonNull Backoff backoff, @NonNull ScheduledExecutorService executor) {
+    this(backoff, new ExecutorTimer(executor), executor);
+  }
+
+  /**
+   * Construct FutureBackoff that runs the attempts on {@link ForkJoinPool#commonPool()}.
+   *
+   * @param backoff Backoff object with algorithm specified. You can build the back-off object
+   * using the {@link Backoff.Builder}.
+   * @param timer Timer used in backoff interval
+   */
+  public FutureBackoff(@NonNull Backoff backoff, @NonNull RetryTimer timer) {
+    this(backoff, timer, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Construct FutureBackoff.
+   *
+   * @param backoff Backoff object with algorithm specified. You can build the back-off object
+   * using the {@link Backoff.Builder}.
+   * @param timer Timer used in backoff interval
+   * @param executor Executor that runs the attempts after the interval
+   */
+  public FutureBackoff(@NonNull Backoff backoff, @NonNull RetryTimer timer,
+      @NonNull Executor executor) {
+    this.backoff = backoff;
+    this.timer = timer;
+    this.executor = executor;
+  }
+
+  /**
+   * Retry only the errors that satisfy a specified predicate.
+   *
+   * @param predicate a function that evaluates each error, returning {@code true} if it passes the
+   * filter
+   * @return FutureBackoff instance
+   */
+  public FutureBackoff filter(@NonNull Predicate<Throwable> predicate) {
+    this.filter = predicate;
+    return this;
+  }
+
+  /**
+   * Set callback function called every time before retry processing
+   *
+   * @param onRetry action to be executed at each retry
+   * @return FutureBackoff instance
+   */
+  public FutureBackoff doOnRetry(@NonNull BiConsumer<Throwable, Integer> onRetry) {
+    this.onRetry = onRetry;
+    return this;
+  }
+
+  /**
+   * Set callback function called when abort retry
+   *
+   * @param onAbort action to be executed when abort
+   * @return FutureBackoff instance
+   */
+  public FutureBackoff doOnAbort(@NonNull Consumer<Throwable> onAbort) {
+    this.onAbort = onAbort;
+    return this;
+  }
+
+  /**
+   * Run the operation and retry it with backoff interval while it fails.
+   *
+   * @param operation supplies a new stage for each attempt
+   * @return future completed with the first successful result, or with the last error when the
+   * retry is aborted
+   */
+  public <T> CompletableFuture<T> retry(
+      @NonNull Supplier<? extends CompletionStage<T>> operation) {
+    Retry<T> retry = new Retry<>(operation);
+    retry.attempt();
+    return retry;
+  }
+
+  private class Retry<T> extends CompletableFuture<T> {
+
+    private final Supplier<? extends CompletionStage<T>> operation;
+
+    private volatile CompletionStage<T> inFlight;
+    private volatile Future<?> pending;
+
+    Retry(Supplier<? extends CompletionStage<T>> operation) {
+      this.operation = operation;
+    }
+
+    void attempt() {
+      if (isDone()) {
+        return;
+      }
+
+      CompletionStage<T> stage;
+      try {
+        stage = operation.get();
+      } catch (Throwable e) {
+        onError(e);
+        return;
+      }
+
+      inFlight = stage;
+      stage.whenComplete((value, error) -> {
+        if (error == null) {
+          complete(value);
+        } else {
+          onError(error);
+        }
+      });
+    }
+
+    /**
+     * Hand the attempt off to the executor, so the timer thread is never blocked by the operation.
+     */
+    private void dispatch() {
+      if (isDone()) {
+        return;
+      }
+      try {
+        executor.execute(this::attempt);
+      } catch (Throwable e) {
+        completeExceptionally(e);
+      }
+    }
+
+    private void onError(Throwable error) {
+      if (isDone()) {
+        return;
+      }
+
+      Throwable e = (error instanceof CompletionException && error.getCause() != null)
+          ? error.getCause() : error;
+      try {
+        if (!filter.test(e)) {
+          completeExceptionally(e);
+          return;
+        }
+
+        long interval = backoff.intervalNanos();
+        if (interval != Backoff.ABORT) {
+          onRetry.accept(e, backoff.getRetryCount());
+          pending = timer.schedule(this::dispatch, interval, TimeUnit.NANOSECONDS);
+          if (isCancelled()) {
+            pending.cancel(false);
+          }
+        } else {
+          onAbort.accept(e);
+          completeExceptionally(e);
+        }
+      } catch (Throwable t) {
+        completeExceptionally(t);
+      }
+    }
+
+    @Override public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      Future<?> p = pending;
+      if (p != null) {
+        p.cancel(false);
+      }
+      CompletionStage<T> s = inFlight;
+      if (s instanceof Future) {
+        ((Future<?>) s).cancel(mayInterruptIfRunning);
+      }
+      return cancelled;
+    }
+  }
+
+  private static class ExecutorTimer implements RetryTimer {
+
+    private final ScheduledExecutorService executor;
+
+    ExecutorTimer(ScheduledExecutorService executor) {
+      this.executor = executor;
+    }
+
+    @NonNull @Override
+    public Future<?> schedule(@NonNull Runnable task, long delay, @NonNull TimeUnit unit) {
+      return executor.schedule(task, delay, unit);
+    }
+  }
+
+  /**
+   * Single daemon thread shared by all FutureBackoff. The thread only hands the next attempt off
+   * to the executor.
+   */
+  private static class SharedTimer {
+
+    static final RetryTimer INSTANCE = new ExecutorTimer(
+        Executors.newSingleThreadScheduledExecutor(r -> {
+          Thread thread = new Thread(r, "FutureBackoff-timer");
+          thread.setDaemon(true);
+          return thread;
+        }));
+  }
+}
@@ -0,0 +1,23 @@
+package com.yuki312.backoff.future;
+
+import android.support.annotation.NonNull;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer used to wait for the backoff interval.
+ *
+ * The task must be run after the delay without blocking the caller thread.
+ */
+public interface RetryTimer {
+
+  /**
+   * Schedule the task that runs the next attempt.
+   *
+   * @param task the next attempt
+   * @param delay the time from now to delay execution
+   * @param unit the units of time that {@code delay} is expressed in
+   * @return Future to cancel the scheduled task
+   */
+  @NonNull Future<?> schedule(@NonNull Runnable task, long delay, @NonNull TimeUnit unit);
+}
@@ -0,0 +1,162 @@
+package com.yuki312.backoff.future;
+
+import android.support.annotation.NonNull;
+import com.yuki312.backoff.core.Backoff;
+import com.yuki312.backoff.core.FixedIntervalAlgorithm;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class FutureBackoffTest {
+
+  @Test
+  public void retryUntilSuccess() throws Exception {
+    final AtomicInteger count = new AtomicInteger(0);
+    final ManualTimer timer = new ManualTimer();
+    final FutureBackoff backoff = new FutureBackoff(fixedBackoff(5), timer, Runnable::run);
+
+    CompletableFuture<Integer> result = backoff.retry(() -> {
+      CompletableFuture<Integer> future = new CompletableFuture<>();
+      if (count.incrementAndGet() < 3) {
+        future.completeExceptionally(new Exception("error " + count.get()));
+      } else {
+        future.complete(count.get());
+      }
+      return future;
+    });
+
+    assertThat(result.isDone()).isFalse();
+    timer.runNext();
+    assertThat(result.isDone()).isFalse();
+    timer.runNext();
+    assertThat(result.get()).isEqualTo(3);
+    assertThat(timer.delays).containsExactly(500L, 500L);
+  }
+
+  @Test
+  public void abort() throws Exception {
+    final AtomicInteger count = new AtomicInteger(0);
+    final AtomicInteger aborted = new AtomicInteger(0);
+    final ManualTimer timer = new ManualTimer();
+    final FutureBackoff backoff = new FutureBackoff(fixedBackoff(2), timer, Runnable::run)
+        .doOnAbort(e -> aborted.incrementAndGet());
+
+    CompletableFuture<Integer> result = backoff.retry(() -> {
+      CompletableFuture<Integer> future = new CompletableFuture<>();
+      future.completeExceptionally(new IllegalStateException("error " + count.incrementAndGet()));
+      return future;
+    });
+
+    while (timer.runNext()) {
+      // run all retries
+    }
+    try {
+      result.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).hasMessage("error 3"); // try(1 time) + retry(2 times)
+    }
+    assertThat(aborted.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void filter() throws Exception {
+    final ManualTimer timer = new ManualTimer();
+    final FutureBackoff backoff = new FutureBackoff(fixedBackoff(5), timer, Runnable::run)
+        .filter(e -> !(e instanceof IllegalArgumentException));
+
+    CompletableFuture<Integer> result = backoff.retry(() -> {
+      throw new IllegalArgumentException("not retryable");
+    });
+
+    assertThat(result.isCompletedExceptionally()).isTrue();
+    assertThat(timer.tasks).isEmpty();
+  }
+
+  @Test
+  public void cancel() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final ManualTimer timer = new ManualTimer();
+    final FutureBackoff backoff = new FutureBackoff(fixedBackoff(5), timer, Runnable::run);
+
+    CompletableFuture<Integer> result = backoff.retry(() -> {
+      count.incrementAndGet();
+      CompletableFuture<Integer> future = new CompletableFuture<>();
+      future.completeExceptionally(new Exception("error"));
+      return future;
+    });
+
+    result.cancel(false);
+    assertThat(timer.tasks.get(0).isCancelled()).isTrue();
+    timer.runNext();
+    assertThat(count.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void attemptOnExecutor() throws Exception {
+    final AtomicInteger count = new AtomicInteger(0);
+    final ManualTimer timer = new ManualTimer();
+    final List<Runnable> executed = new ArrayList<>();
+    final FutureBackoff backoff = new FutureBackoff(fixedBackoff(5), timer, executed::add);
+
+    CompletableFuture<Integer> result = backoff.retry(() -> {
+      CompletableFuture<Integer> future = new CompletableFuture<>();
+      if (count.incrementAndGet() < 2) {
+        future.completeExceptionally(new Exception("error " + count.get()));
+      } else {
+        future.complete(count.get());
+      }
+      return future;
+    });
+
+    // the timer only hands the attempt off to the executor
+    timer.runNext();
+    assertThat(count.get()).isEqualTo(1);
+    assertThat(executed).hasSize(1);
+
+    executed.get(0).run();
+    assertThat(result.get()).isEqualTo(2);
+  }
+
+  private static Backoff fixedBackoff(int maxRetryCount) {
+    return new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm())
+        .setMaxRetryCount(maxRetryCount)
+        .build();
+  }
+
+  private static class ManualTimer implements RetryTimer {
+
+    final List<FutureTask<?>> tasks = new ArrayList<>();
+    final List<Long> delays = new ArrayList<>();
+    private int next = 0;
+
+    @NonNull @Override
+    public Future<?> schedule(@NonNull Runnable task, long delay, @NonNull TimeUnit unit) {
+      FutureTask<?> future = new FutureTask<>(task, null);
+      tasks.add(future);
+      delays.add(unit.toMillis(delay));
+      return future;
+    }
+
+    boolean runNext() {
+      if (next >= tasks.size()) {
+        return false;
+      }
+      tasks.get(next++).run();
+      return true;
+    }
+  }
+}
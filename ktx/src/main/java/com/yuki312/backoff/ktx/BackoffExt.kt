@@ -2,7 +2,9 @@ package com.yuki312.backoff.ktx
 
 import com.yuki312.backoff.core.BinaryExponentialAlgorithm
 import com.yuki312.backoff.core.ExponentialAlgorithm
+import com.yuki312.backoff.core.FixedIntervalAlgorithm
 import com.yuki312.backoff.core.RandomIntervalAlgorithm
+import java.util.concurrent.TimeUnit
 
 fun exponentialBackoff(
         interval: Long = ExponentialAlgorithm.DEFAULT_INTERVAL,
@@ -13,6 +15,16 @@ fun exponentialBackoff(
     return ExponentialAlgorithm(interval, multiplier, maxInterval, range)
 }
 
+fun exponentialBackoff(
+        interval: Long = ExponentialAlgorithm.DEFAULT_INTERVAL,
+        multiplier: Double = ExponentialAlgorithm.DEFAULT_MULTIPLIER,
+        maxInterval: Long = ExponentialAlgorithm.DEFAULT_MAX_INTERVAL,
+        range: Double = ExponentialAlgorithm.DEFAULT_RANGE,
+        unit: TimeUnit
+): ExponentialAlgorithm {
+    return ExponentialAlgorithm(interval, multiplier, maxInterval, range, unit)
+}
+
 fun binaryExponentialBackoff(
         interval: Long = ExponentialAlgorithm.DEFAULT_INTERVAL,
         maxInterval: Long = ExponentialAlgorithm.DEFAULT_MAX_INTERVAL,
@@ -21,6 +33,22 @@ fun binaryExponentialBackoff(
     return BinaryExponentialAlgorithm(interval, maxInterval, range)
 }
 
+fun binaryExponentialBackoff(
+        interval: Long = ExponentialAlgorithm.DEFAULT_INTERVAL,
+        maxInterval: Long = ExponentialAlgorithm.DEFAULT_MAX_INTERVAL,
+        range: Double = ExponentialAlgorithm.DEFAULT_RANGE,
+        unit: TimeUnit
+): BinaryExponentialAlgorithm {
+    return BinaryExponentialAlgorithm(interval, maxInterval, range, unit)
+}
+
+fun fixedInterval(
+        interval: Long = FixedIntervalAlgorithm.DEFAULT_INTERVAL,
+        unit: TimeUnit = TimeUnit.MILLISECONDS
+): FixedIntervalAlgorithm {
+    return FixedIntervalAlgorithm(interval, unit)
+}
+
 fun randomInterval(
         lowInterval: Long = RandomIntervalAlgorithm.DEFAULT_LOW_INTERVAL,
         highInterval: Long = RandomIntervalAlgorithm.DEFAULT_HIGH_INTERVAL,
@@ -31,3 +59,15 @@ fun randomInterval(
     return RandomIntervalAlgorithm(
             lowInterval, highInterval, lowMultiplier, highMultiplier, maxInterval)
 }
+
+fun randomInterval(
+        lowInterval: Long = RandomIntervalAlgorithm.DEFAULT_LOW_INTERVAL,
+        highInterval: Long = RandomIntervalAlgorithm.DEFAULT_HIGH_INTERVAL,
+        lowMultiplier: Double = RandomIntervalAlgorithm.DEFAULT_LOW_MULTIPLIER,
+        highMultiplier: Double = RandomIntervalAlgorithm.DEFAULT_HIGH_MULTIPLIER,
+        maxInterval: Long = RandomIntervalAlgorithm.DEFAULT_MAX_INTERVAL,
+        unit: TimeUnit
+): RandomIntervalAlgorithm {
+    return RandomIntervalAlgorithm(
+            lowInterval, highInterval, lowMultiplier, highMultiplier, maxInterval, unit)
+}
@@ -0,0 +1,79 @@
+package com.yuki312.backoff.ktx
+
+import com.yuki312.backoff.core.Backoff
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.retry
+
+/**
+ * Run [block] and retry it with the backoff interval while it fails.
+ *
+ * The coroutine suspends with [delay] until the next retry, so no thread is blocked while
+ * waiting, and the retry stops when the coroutine is cancelled.
+ *
+ * @param backoff Backoff object with algorithm specified
+ * @param filter retry only the errors that satisfy this predicate
+ * @param onRetry action to be executed at each retry
+ * @param onAbort action to be executed when abort
+ * @return result of [block]
+ */
+suspend fun <T> retryWithBackoff(
+        backoff: Backoff,
+        filter: (Throwable) -> Boolean = { true },
+        onRetry: (Throwable, Int) -> Unit = { _, _ -> },
+        onAbort: (Throwable) -> Unit = {},
+        block: suspend () -> T
+): T {
+    while (true) {
+        try {
+            return block()
+        } catch (e: Throwable) {
+            if (!awaitRetry(backoff, e, filter, onRetry, onAbort)) {
+                throw e
+            }
+        }
+    }
+}
+
+/**
+ * Retry collection of this flow with the backoff interval when an upstream error occurred.
+ *
+ * @param backoff Backoff object with algorithm specified
+ * @param filter retry only the errors that satisfy this predicate
+ * @param onRetry action to be executed at each retry
+ * @param onAbort action to be executed when abort
+ * @return flow that retries the upstream
+ */
+@ExperimentalCoroutinesApi
+fun <T> Flow<T>.retryWithBackoff(
+        backoff: Backoff,
+        filter: (Throwable) -> Boolean = { true },
+        onRetry: (Throwable, Int) -> Unit = { _, _ -> },
+        onAbort: (Throwable) -> Unit = {}
+): Flow<T> {
+    return retry { e -> awaitRetry(backoff, e, filter, onRetry, onAbort) }
+}
+
+private suspend fun awaitRetry(
+        backoff: Backoff,
+        e: Throwable,
+        filter: (Throwable) -> Boolean,
+        onRetry: (Throwable, Int) -> Unit,
+        onAbort: (Throwable) -> Unit
+): Boolean {
+    if (e is CancellationException || !filter(e)) {
+        return false
+    }
+
+    val interval = backoff.interval()
+    if (interval == Backoff.ABORT) {
+        onAbort(e)
+        return false
+    }
+
+    onRetry(e, backoff.retryCount)
+    delay(interval)
+    return true
+}
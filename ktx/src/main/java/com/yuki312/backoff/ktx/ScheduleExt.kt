@@ -0,0 +1,43 @@
+package com.yuki312.backoff.ktx
+
+import com.yuki312.backoff.core.BackoffAlgorithm
+import com.yuki312.backoff.core.Schedule
+import com.yuki312.backoff.core.ScheduleAlgorithm
+import java.util.concurrent.TimeUnit
+
+/**
+ * Take the first [count] intervals of this algorithm as a schedule.
+ *
+ * ```
+ * val algorithm = (fixedInterval(100).take(3) + binaryExponentialBackoff(range = 0.0).take(5))
+ *         .capped(10, TimeUnit.SECONDS)
+ *         .withJitter(0.2)
+ *         .compile()
+ * ```
+ */
+fun BackoffAlgorithm.take(count: Int): Schedule {
+    return Schedule.take(this, count)
+}
+
+/**
+ * Append [next] schedule to this schedule.
+ */
+operator fun Schedule.plus(next: Schedule): Schedule {
+    return then(next)
+}
+
+/**
+ * Compose the schedules in order and compile them into one algorithm.
+ */
+fun schedule(
+        vararg schedules: Schedule,
+        maxInterval: Long = Long.MAX_VALUE,
+        jitter: Double = 0.0,
+        unit: TimeUnit = TimeUnit.MILLISECONDS
+): ScheduleAlgorithm {
+    require(schedules.isNotEmpty()) { "Schedules is empty." }
+    return schedules.reduce { acc, next -> acc.then(next) }
+            .capped(maxInterval, unit)
+            .withJitter(jitter)
+            .compile()
+}
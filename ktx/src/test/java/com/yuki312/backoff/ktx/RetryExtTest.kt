@@ -0,0 +1,142 @@
+package com.yuki312.backoff.ktx
+
+import com.yuki312.backoff.core.Backoff
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.yield
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import java.util.concurrent.TimeUnit
+
+@RunWith(JUnit4::class)
+class RetryExtTest {
+
+    @Test
+    fun retryUntilSuccess() = runBlocking<Unit> {
+        var count = 0
+        val retries = mutableListOf<Int>()
+
+        val result = retryWithBackoff(fixedBackoff(5), onRetry = { _, retry -> retries.add(retry) }) {
+            if (++count < 3) throw Exception("error $count")
+            count
+        }
+
+        assertThat(result).isEqualTo(3)
+        assertThat(retries).containsExactly(1, 2)
+    }
+
+    @Test
+    fun abort() = runBlocking<Unit> {
+        var count = 0
+        var aborted = 0
+
+        try {
+            retryWithBackoff<Int>(fixedBackoff(2), onAbort = { aborted++ }) {
+                throw IllegalStateException("error ${++count}")
+            }
+            fail()
+        } catch (e: IllegalStateException) {
+            assertThat(e).hasMessage("error 3") // try(1 time) + retry(2 times)
+        }
+        assertThat(aborted).isEqualTo(1)
+    }
+
+    @Test
+    fun filter() = runBlocking<Unit> {
+        var count = 0
+
+        try {
+            retryWithBackoff<Int>(fixedBackoff(5), filter = { it !is IllegalArgumentException }) {
+                count++
+                throw IllegalArgumentException("not retryable")
+            }
+            fail()
+        } catch (e: IllegalArgumentException) {
+            assertThat(count).isEqualTo(1)
+        }
+    }
+
+    @Test
+    fun cancellationException_notRetried() = runBlocking<Unit> {
+        var count = 0
+
+        try {
+            retryWithBackoff<Int>(fixedBackoff(5)) {
+                count++
+                throw CancellationException("cancelled")
+            }
+            fail()
+        } catch (e: CancellationException) {
+            assertThat(count).isEqualTo(1)
+        }
+    }
+
+    @Test
+    fun cancelWhileWaiting() = runBlocking<Unit> {
+        var count = 0
+        val backoff = Backoff.Builder()
+                .setAlgorithm(fixedInterval(1L, TimeUnit.HOURS))
+                .setUnlimitedElapsedTime()
+                .build()
+
+        val job = launch {
+            retryWithBackoff<Int>(backoff) {
+                count++
+                throw Exception("error")
+            }
+        }
+        yield() // run until the first retry waits
+        job.cancel()
+        job.join()
+
+        assertThat(job.isCancelled).isTrue()
+        assertThat(count).isEqualTo(1)
+    }
+
+    @ExperimentalCoroutinesApi
+    @Test
+    fun flow() = runBlocking<Unit> {
+        var count = 0
+        var aborted = 0
+
+        val values = flow {
+            emit(++count)
+            if (count < 3) throw Exception("error $count")
+        }.retryWithBackoff(fixedBackoff(5), onAbort = { aborted++ }).toList()
+
+        assertThat(values).containsExactly(1, 2, 3)
+        assertThat(aborted).isEqualTo(0)
+    }
+
+    @ExperimentalCoroutinesApi
+    @Test
+    fun flow_abort() = runBlocking<Unit> {
+        var count = 0
+        var aborted = 0
+
+        try {
+            flow<Int> { throw IllegalStateException("error ${++count}") }
+                    .retryWithBackoff(fixedBackoff(2), onAbort = { aborted++ })
+                    .toList()
+            fail()
+        } catch (e: IllegalStateException) {
+            assertThat(e).hasMessage("error 3") // try(1 time) + retry(2 times)
+        }
+        assertThat(aborted).isEqualTo(1)
+    }
+
+    private fun fixedBackoff(maxRetryCount: Int): Backoff {
+        return Backoff.Builder()
+                .setAlgorithm(fixedInterval(1L, TimeUnit.MILLISECONDS))
+                .setMaxRetryCount(maxRetryCount)
+                .build()
+    }
+}
@@ -0,0 +1,22 @@
+package com.yuki312.backoff.rxjava2;
+
+import android.support.annotation.NonNull;
+import io.reactivex.Observable;
+
+/**
+ * External signal that tells whether the network or the dependency is available.
+ *
+ * While it reports unavailable, {@link RxBackoff} parks pending retries without consuming the
+ * retry count.
+ *
+ * @see RxBackoff#waitForAvailability(AvailabilitySignal, long, java.util.concurrent.TimeUnit)
+ * @see TestAvailabilitySignal
+ */
+public interface AvailabilitySignal {
+
+  /**
+   * @return Observable that emits the current availability on subscribe, and every change after
+   * that. e.g. BehaviorSubject
+   */
+  @NonNull Observable<Boolean> availability();
+}
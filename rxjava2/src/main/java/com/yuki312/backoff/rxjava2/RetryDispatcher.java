@@ -0,0 +1,222 @@
+package com.yuki312.backoff.rxjava2;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.SerialDisposable;
+import io.reactivex.functions.Cancellable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling layer shared by RxBackoff instances to order retries by {@link RetryPriority}.
+ *
+ * <pre><code>
+ *   RetryDispatcher dispatcher = new RetryDispatcher(Schedulers.computation(), 100);
+ *   RxBackoff.exponential(2.0, 5).dispatcher(dispatcher).priority(RetryPriority.HIGH)
+ * </code></pre>
+ *
+ * Retries due together are released in priority order. When a retry is due, every pending retry
+ * due within the coalescing window is released with it, higher priority first. A retry may fire
+ * up to the window early. When the number of pending retries exceeds the limit, the lowest
+ * priority retry that is due latest is shed, and the source fails with the error of that retry.
+ */
+public class RetryDispatcher {
+
+  public static final long DEFAULT_COALESCING_WINDOW = 1L; // milliseconds
+
+  private static final Comparator<Pending> DUE_ORDER = new Comparator<Pending>() {
+    @Override public int compare(Pending a, Pending b) {
+      if (a.due != b.due) {
+        return a.due < b.due ? -1 : 1;
+      }
+      return PRIORITY_ORDER.compare(a, b);
+    }
+  };
+
+  private static final Comparator<Pending> PRIORITY_ORDER = new Comparator<Pending>() {
+    @Override public int compare(Pending a, Pending b) {
+      if (a.priority != b.priority) {
+        return a.priority.compareTo(b.priority);
+      }
+      return a.seq < b.seq ? -1 : (a.seq == b.seq ? 0 : 1);
+    }
+  };
+
+  @NonNull private final Scheduler scheduler;
+  private final int maxPending;
+  private final long coalescingWindow; // nanoseconds
+
+  private final PriorityQueue<Pending> pending = new PriorityQueue<>(16, DUE_ORDER);
+  private long seq = 0L;
+
+  /**
+   * Construct RetryDispatcher without shedding.
+   *
+   * @param scheduler Scheduler used in backoff interval
+   */
+  public RetryDispatcher(@NonNull Scheduler scheduler) {
+    this(scheduler, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Construct RetryDispatcher.
+   *
+   * @param scheduler Scheduler used in backoff interval
+   * @param maxPending the maximum number of pending retries. Lower priority retries are shed
+   * when exceeded.
+   */
+  public RetryDispatcher(@NonNull Scheduler scheduler, @IntRange(from = 1) int maxPending) {
+    this(scheduler, maxPending, DEFAULT_COALESCING_WINDOW, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Construct RetryDispatcher.
+   *
+   * @param scheduler Scheduler used in backoff interval
+   * @param maxPending the maximum number of pending retries. Lower priority retries are shed
+   * when exceeded.
+   * @param coalescingWindow retries due within this window are released together in priority
+   * order
+   * @param unit the units of time that {@code coalescingWindow} is expressed in
+   * @see #DEFAULT_COALESCING_WINDOW
+   */
+  public RetryDispatcher(@NonNull Scheduler scheduler, @IntRange(from = 1) int maxPending,
+      @IntRange(from = 0) long coalescingWindow, @NonNull TimeUnit unit) {
+    if (maxPending < 1) {
+      throw new IllegalArgumentException("MaxPending is invalid. Must be greater than 1.");
+    }
+
+    long window = unit.toNanos(coalescingWindow);
+    if (window < 0L) {
+      throw new IllegalArgumentException(
+          "CoalescingWindow is invalid. Must be greater or equal 0.");
+    }
+
+    this.scheduler = scheduler;
+    this.maxPending = maxPending;
+    this.coalescingWindow = window;
+  }
+
+  /**
+   * @return Observable that emits 0L when the retry is released, or fails with
+   * {@link RetryShedException} when it is shed
+   */
+  Observable<Long> timer(final long delay, final TimeUnit unit,
+      final RetryPriority priority) {
+    return Observable.create(new ObservableOnSubscribe<Long>() {
+      @Override public void subscribe(ObservableEmitter<Long> emitter) throws Exception {
+        final Pending p = new Pending(
+            scheduler.now(TimeUnit.NANOSECONDS) + unit.toNanos(delay), priority, emitter);
+        emitter.setCancellable(new Cancellable() {
+          @Override public void cancel() throws Exception {
+            remove(p);
+          }
+        });
+        enqueue(p);
+        // if the retry is already shed, the task is disposed as soon as it is set
+        p.task.replace(scheduler.scheduleDirect(new Runnable() {
+          @Override public void run() {
+            release(p);
+          }
+        }, delay, unit));
+      }
+    });
+  }
+
+  private void enqueue(Pending p) {
+    Pending shed = null;
+    synchronized (this) {
+      p.seq = seq++;
+      pending.add(p);
+      if (pending.size() > maxPending) {
+        shed = lowest();
+        pending.remove(shed);
+      }
+    }
+    if (shed != null) {
+      shed.emitter.tryOnError(new RetryShedException());
+    }
+  }
+
+  /**
+   * Remove the retry and cancel its timer task. Called when the retry is released, shed or
+   * disposed.
+   */
+  private void remove(Pending p) {
+    synchronized (this) {
+      pending.remove(p);
+    }
+    p.task.dispose();
+  }
+
+  /**
+   * Release the retry and all retries due within the coalescing window, in priority order.
+   * Overdue retries whose timer tasks have not run yet are released too.
+   */
+  private void release(Pending p) {
+    long until = Math.max(p.due, scheduler.now(TimeUnit.NANOSECONDS));
+    until = (coalescingWindow > Long.MAX_VALUE - until)
+        ? Long.MAX_VALUE : until + coalescingWindow;
+    List<Pending> due = new ArrayList<>();
+    synchronized (this) {
+      while (!pending.isEmpty() && pending.peek().due <= until) {
+        due.add(pending.poll());
+      }
+    }
+    Collections.sort(due, PRIORITY_ORDER);
+    for (Pending d : due) {
+      d.emitter.onNext(0L);
+      d.emitter.onComplete();
+    }
+  }
+
+  /**
+   * @return the lowest priority retry that is due latest
+   */
+  private Pending lowest() {
+    Pending lowest = null;
+    for (Pending p : pending) {
+      if (lowest == null
+          || p.priority.compareTo(lowest.priority) > 0
+          || (p.priority == lowest.priority && DUE_ORDER.compare(p, lowest) > 0)) {
+        lowest = p;
+      }
+    }
+    return lowest;
+  }
+
+  private static class Pending {
+
+    final long due; // nanoseconds
+    final RetryPriority priority;
+    final ObservableEmitter<Long> emitter;
+    final SerialDisposable task = new SerialDisposable();
+    long seq;
+
+    Pending(long due, RetryPriority priority, ObservableEmitter<Long> emitter) {
+      this.due = due;
+      this.priority = priority;
+      this.emitter = emitter;
+    }
+  }
+
+  /**
+   * Signals that the retry is shed by the dispatcher.
+   */
+  static class RetryShedException extends RuntimeException {
+
+    private static final long serialVersionUID = -1867209380584411239L;
+
+    RetryShedException() {
+      super("Retry is shed by RetryDispatcher.");
+    }
+  }
+}
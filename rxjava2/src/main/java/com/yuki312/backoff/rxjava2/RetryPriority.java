@@ -0,0 +1,32 @@
+package com.yuki312.backoff.rxjava2;
+
+/**
+ * Priority of retries.
+ *
+ * | Priority | Interval multiplier |
+ * | -------- | ------------------- |
+ * | HIGH     | x1.0                |
+ * | NORMAL   | x1.0                | *Default
+ * | LOW      | x2.0                |
+ *
+ * When retries are due together on the same {@link RetryDispatcher}, higher priority retries fire
+ * first, and lower priority retries are shed first under load.
+ */
+public enum RetryPriority {
+  HIGH(1.0),
+  NORMAL(1.0),
+  LOW(2.0);
+
+  private final double intervalMultiplier;
+
+  RetryPriority(double intervalMultiplier) {
+    this.intervalMultiplier = intervalMultiplier;
+  }
+
+  /**
+   * @return the multiplier applied to the interval calculated by the backoff algorithm
+   */
+  public double getIntervalMultiplier() {
+    return intervalMultiplier;
+  }
+}
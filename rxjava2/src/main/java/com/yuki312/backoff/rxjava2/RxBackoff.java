@@ -1,25 +1,36 @@
 package com.yuki312.backoff.rxjava2;
 
+import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import com.yuki312.backoff.core.Backoff;
 import com.yuki312.backoff.core.BackoffAlgorithm;
 import com.yuki312.backoff.core.ExponentialAlgorithm;
 import com.yuki312.backoff.core.FixedIntervalAlgorithm;
 import com.yuki312.backoff.core.RandomIntervalAlgorithm;
+import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
 import io.reactivex.Observable;
 import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
 import io.reactivex.Scheduler;
 import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.BiPredicate;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.functions.Predicate;
+import io.reactivex.processors.PublishProcessor;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import org.reactivestreams.Publisher;
 
 public class RxBackoff {
 
+  public static final int DEFAULT_MAX_PARKED_RETRIES = 10;
+
   @NonNull private final Backoff backoff;
   @NonNull private final Scheduler intervalScheduler;
 
@@ -41,6 +52,14 @@ public class RxBackoff {
     }
   };
 
+  @Nullable private AvailabilitySignal availability;
+  private long availabilityJitter = 0L; // nanoseconds
+  private int maxParkedRetries = DEFAULT_MAX_PARKED_RETRIES;
+  private int parkedRetries = 0;
+
+  @NonNull private RetryPriority priority = RetryPriority.NORMAL;
+  @Nullable private RetryDispatcher dispatcher;
+
   public static RxBackoff exponential(double multiplier, int maxRetryCount) {
     return new RxBackoff(new Backoff.Builder()
         .setAlgorithm(new ExponentialAlgorithm(
@@ -135,23 +154,99 @@ public class RxBackoff {
     return this;
   }
 
+  /**
+   * Park retries while the signal reports unavailable.
+   *
+   * @param signal availability of the network or the dependency
+   * @return RxBackoff instance
+   * @see #waitForAvailability(AvailabilitySignal, long, TimeUnit)
+   */
+  public RxBackoff waitForAvailability(@NonNull AvailabilitySignal signal) {
+    return waitForAvailability(signal, 0L, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Park retries while the signal reports unavailable.
+   *
+   * @param signal availability of the network or the dependency
+   * @param maxJitter the maximum random delay of the release
+   * @param unit the units of time that {@code maxJitter} is expressed in
+   * @return RxBackoff instance
+   * @see #waitForAvailability(AvailabilitySignal, long, TimeUnit, int)
+   */
+  public RxBackoff waitForAvailability(@NonNull AvailabilitySignal signal, long maxJitter,
+      @NonNull TimeUnit unit) {
+    return waitForAvailability(signal, maxJitter, unit, DEFAULT_MAX_PARKED_RETRIES);
+  }
+
+  /**
+   * Park retries while the signal reports unavailable.
+   *
+   * A retryable error that occurs while unavailable is parked without consuming the retry count,
+   * and onRetry is called with the current retry count. The retry is aborted when more than
+   * {@code maxParkedRetries} errors are parked. A retry whose interval elapsed while unavailable
+   * is parked too. When the signal becomes available, parked retries are released after a random
+   * delay within {@code maxJitter} to avoid a burst.
+   *
+   * @param signal availability of the network or the dependency
+   * @param maxJitter the maximum random delay of the release
+   * @param unit the units of time that {@code maxJitter} is expressed in
+   * @param maxParkedRetries the maximum count of errors parked without consuming the retry count
+   * @return RxBackoff instance
+   * @see #DEFAULT_MAX_PARKED_RETRIES
+   */
+  public RxBackoff waitForAvailability(@NonNull AvailabilitySignal signal, long maxJitter,
+      @NonNull TimeUnit unit, @IntRange(from = 0) int maxParkedRetries) {
+    long t = unit.toNanos(maxJitter);
+    if (t < 0L) {
+      throw new IllegalArgumentException("MaxJitter is invalid. Must be greater or equal 0.");
+    }
+
+    if (maxParkedRetries < 0) {
+      throw new IllegalArgumentException(
+          "MaxParkedRetries is invalid. Must be greater or equal 0.");
+    }
+
+    this.availability = signal;
+    this.availabilityJitter = t;
+    this.maxParkedRetries = maxParkedRetries;
+    return this;
+  }
+
+  /**
+   * Set the priority of retries. The interval calculated by the algorithm is multiplied by
+   * {@link RetryPriority#getIntervalMultiplier()}, and the multiplied interval is counted in the
+   * maximum elapsed time.
+   *
+   * @param priority priority of retries. Default is {@link RetryPriority#NORMAL}.
+   * @return RxBackoff instance
+   */
+  public RxBackoff priority(@NonNull RetryPriority priority) {
+    this.priority = priority;
+    return this;
+  }
+
+  /**
+   * Schedule retries on the dispatcher shared with other RxBackoff.
+   *
+   * Retries due together fire in priority order, and lower priority retries are shed first when
+   * the dispatcher is overloaded. onRetry is called when the dispatcher releases the retry, and a
+   * shed retry is aborted with the error of the source.
+   *
+   * @param dispatcher dispatcher shared by RxBackoff instances
+   * @return RxBackoff instance
+   */
+  public RxBackoff dispatcher(@NonNull RetryDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+    return this;
+  }
+
   public Function<Observable<Throwable>, ObservableSource<?>> observable() {
     return new Function<Observable<Throwable>, ObservableSource<?>>() {
       @Override public ObservableSource apply(Observable<Throwable> attempts) throws Exception {
         return attempts.flatMap(new Function<Throwable, ObservableSource<?>>() {
           @Override public ObservableSource<?> apply(Throwable throwable) throws Exception {
-            if (!filter.test(throwable)) {
-              return Observable.error(throwable);
-            }
-
-            long interval = backoff.interval();
-            if (interval != Backoff.ABORT) {
-              onRetry.accept(throwable, backoff.getRetryCount());
-              return Observable.timer(interval, TimeUnit.MILLISECONDS, intervalScheduler);
-            } else {
-              onAbort.accept(throwable);
-              return Observable.error(throwable);
-            }
+            return retry(throwable, NO_OP);
           }
         });
       }
@@ -161,23 +256,579 @@ public class RxBackoff {
   public Function<Flowable<Throwable>, Publisher<?>> flowable() {
     return new Function<Flowable<Throwable>, Publisher<?>>() {
       @Override public Publisher<?> apply(Flowable<Throwable> attempts) throws Exception {
-        return attempts.flatMap(new Function<Throwable, Publisher<?>>() {
+        // at most one pending timer, and request the next error only after the timer completes
+        return attempts.concatMap(new Function<Throwable, Publisher<?>>() {
           @Override public Publisher<?> apply(Throwable throwable) throws Exception {
-            if (!filter.test(throwable)) {
-              return Flowable.error(throwable);
+            return retryFlowable(throwable, NO_OP);
+          }
+        }, 1);
+      }
+    };
+  }
+
+  /**
+   * Emit the cached value immediately when the source fails, and keep retrying in the background.
+   *
+   * @see #staleWhileRetrying(StaleCache, Object, long, TimeUnit)
+   */
+  public <K, T> ObservableTransformer<T, T> staleWhileRetrying(
+      @NonNull StaleCache<K, T> cache, @NonNull K key) {
+    return staleWhileRetrying(cache, key, 0L, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Emit the cached value when the source fails, and keep retrying in the background.
+   *
+   * Each value emitted by the source is stored to the cache. On the first retryable error, the
+   * cached value is emitted after the deadline unless a fresh value arrives before it. The retry
+   * continues with backoff interval, and the fresh value is emitted when it arrives.
+   *
+   * <pre><code>
+   *   api.user(id)
+   *       .compose(RxBackoff.exponential(2.0, 5).&lt;String, User&gt;staleWhileRetrying(cache, id))
+   * </code></pre>
+   *
+   * @param cache cache of the last good values
+   * @param key key of the value in the cache
+   * @param deadline time to wait for a fresh value before emitting the cached value
+   * @param unit the units of time that {@code deadline} is expressed in
+   * @return transformer that retries the source with fallback to the cached value
+   */
+  public <K, T> ObservableTransformer<T, T> staleWhileRetrying(
+      @NonNull final StaleCache<K, T> cache, @NonNull final K key,
+      final long deadline, @NonNull final TimeUnit unit) {
+    return new ObservableTransformer<T, T>() {
+      @Override public ObservableSource<T> apply(final Observable<T> upstream) {
+        return Observable.defer(new Callable<ObservableSource<T>>() {
+          @Override public ObservableSource<T> call() throws Exception {
+            final PublishSubject<Throwable> retrying = PublishSubject.create();
+            return upstream
+                .doOnNext(new Consumer<T>() {
+                  @Override public void accept(T value) throws Exception {
+                    cache.put(key, value);
+                  }
+                })
+                .retryWhen(new Function<Observable<Throwable>, ObservableSource<?>>() {
+                  @Override public ObservableSource<?> apply(Observable<Throwable> attempts)
+                      throws Exception {
+                    return attempts.flatMap(new Function<Throwable, ObservableSource<?>>() {
+                      @Override public ObservableSource<?> apply(Throwable throwable)
+                          throws Exception {
+                        return retry(throwable, new Consumer<Throwable>() {
+                          @Override public void accept(Throwable e) throws Exception {
+                            retrying.onNext(e);
+                          }
+                        });
+                      }
+                    });
+                  }
+                })
+                .publish(new Function<Observable<T>, ObservableSource<T>>() {
+                  @Override public ObservableSource<T> apply(Observable<T> fresh)
+                      throws Exception {
+                    Observable<Throwable> firstError = retrying.take(1);
+                    if (deadline > 0L) {
+                      firstError = firstError.delay(deadline, unit, intervalScheduler);
+                    }
+                    Observable<T> stale = firstError
+                        .flatMap(new Function<Throwable, ObservableSource<T>>() {
+                          @Override public ObservableSource<T> apply(Throwable throwable)
+                              throws Exception {
+                            T value = cache.get(key);
+                            return value == null ? Observable.<T>empty() : Observable.just(value);
+                          }
+                        })
+                        // a fresh value or the termination of the source wins over the cache
+                        .takeUntil(fresh.materialize());
+                    return Observable.merge(fresh, stale);
+                  }
+                });
+          }
+        });
+      }
+    };
+  }
+
+  /**
+   * Emit the cached value immediately when the source fails, and keep retrying in the background.
+   *
+   * @see #staleWhileRetrying(StaleCache, Object, long, TimeUnit)
+   */
+  public <K, T> FlowableTransformer<T, T> staleWhileRetryingFlowable(
+      @NonNull StaleCache<K, T> cache, @NonNull K key) {
+    return staleWhileRetryingFlowable(cache, key, 0L, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Emit the cached value when the source fails, and keep retrying in the background.
+   *
+   * @see #staleWhileRetrying(StaleCache, Object, long, TimeUnit)
+   */
+  public <K, T> FlowableTransformer<T, T> staleWhileRetryingFlowable(
+      @NonNull final StaleCache<K, T> cache, @NonNull final K key,
+      final long deadline, @NonNull final TimeUnit unit) {
+    return new FlowableTransformer<T, T>() {
+      @Override public Publisher<T> apply(final Flowable<T> upstream) {
+        return Flowable.defer(new Callable<Publisher<T>>() {
+          @Override public Publisher<T> call() throws Exception {
+            final PublishProcessor<Throwable> retrying = PublishProcessor.create();
+            return upstream
+                .doOnNext(new Consumer<T>() {
+                  @Override public void accept(T value) throws Exception {
+                    cache.put(key, value);
+                  }
+                })
+                .retryWhen(new Function<Flowable<Throwable>, Publisher<?>>() {
+                  @Override public Publisher<?> apply(Flowable<Throwable> attempts)
+                      throws Exception {
+                    return attempts.concatMap(new Function<Throwable, Publisher<?>>() {
+                      @Override public Publisher<?> apply(Throwable throwable)
+                          throws Exception {
+                        return retryFlowable(throwable, new Consumer<Throwable>() {
+                          @Override public void accept(Throwable e) throws Exception {
+                            retrying.onNext(e);
+                          }
+                        });
+                      }
+                    }, 1);
+                  }
+                })
+                .publish(new Function<Flowable<T>, Publisher<T>>() {
+                  @Override public Publisher<T> apply(Flowable<T> fresh) throws Exception {
+                    Flowable<Throwable> firstError = retrying.take(1);
+                    if (deadline > 0L) {
+                      firstError = firstError.delay(deadline, unit, intervalScheduler);
+                    }
+                    Flowable<T> stale = firstError
+                        .flatMap(new Function<Throwable, Publisher<T>>() {
+                          @Override public Publisher<T> apply(Throwable throwable)
+                              throws Exception {
+                            T value = cache.get(key);
+                            return value == null ? Flowable.<T>empty() : Flowable.just(value);
+                          }
+                        })
+                        // a fresh value or the termination of the source wins over the cache
+                        .takeUntil(fresh.materialize());
+                    return Flowable.merge(fresh, stale);
+                  }
+                });
+          }
+        });
+      }
+    };
+  }
+
+  /**
+   * Retry the source from the last checkpoint with backoff interval.
+   *
+   * The checkpoint (e.g. offset or page token) is updated from each emitted value, and each retry
+   * subscribes to the source created from the last checkpoint. The checkpoint is held per
+   * subscription. When the checkpoint advances after a retry, the backoff is reset, so a long
+   * stream that fails now and then gets the full retry count for each failure.
+   *
+   * <pre><code>
+   *   RxBackoff.exponential(2.0, 5).resumable(0L,
+   *       new Function&lt;Page, Long&gt;() {
+   *         public Long apply(Page page) { return page.nextOffset(); }
+   *       },
+   *       new Function&lt;Long, Observable&lt;Page&gt;&gt;() {
+   *         public Observable&lt;Page&gt; apply(Long offset) { return api.pages(offset); }
+   *       })
+   * </code></pre>
+   *
+   * @param initialCheckpoint checkpoint of the first subscription
+   * @param checkpointOf function that returns the checkpoint after the emitted value
+   * @param sourceFactory function that creates the source continuing from the checkpoint
+   * @return Observable that resumes from the last checkpoint on retry
+   */
+  public <T, C> Observable<T> resumable(@NonNull final C initialCheckpoint,
+      @NonNull final Function<? super T, ? extends C> checkpointOf,
+      @NonNull final Function<? super C, ? extends ObservableSource<T>> sourceFactory) {
+    return Observable.defer(new Callable<ObservableSource<T>>() {
+      @Override public ObservableSource<T> call() throws Exception {
+        final Checkpoint<T, C> checkpoint = new Checkpoint<>(initialCheckpoint, checkpointOf);
+        return Observable
+            .defer(new Callable<ObservableSource<T>>() {
+              @Override public ObservableSource<T> call() throws Exception {
+                return sourceFactory.apply(checkpoint.last);
+              }
+            })
+            .doOnNext(checkpoint)
+            .retryWhen(observable());
+      }
+    });
+  }
+
+  /**
+   * Retry the source from the last checkpoint with backoff interval.
+   *
+   * @see #resumable(Object, Function, Function)
+   */
+  public <T, C> Flowable<T> resumableFlowable(@NonNull final C initialCheckpoint,
+      @NonNull final Function<? super T, ? extends C> checkpointOf,
+      @NonNull final Function<? super C, ? extends Publisher<T>> sourceFactory) {
+    return Flowable.defer(new Callable<Publisher<T>>() {
+      @Override public Publisher<T> call() throws Exception {
+        final Checkpoint<T, C> checkpoint = new Checkpoint<>(initialCheckpoint, checkpointOf);
+        return Flowable
+            .defer(new Callable<Publisher<T>>() {
+              @Override public Publisher<T> call() throws Exception {
+                return sourceFactory.apply(checkpoint.last);
+              }
+            })
+            .doOnNext(checkpoint)
+            .retryWhen(flowable());
+      }
+    });
+  }
+
+  /**
+   * Retry the error with backoff interval, gated by the availability signal if it is set.
+   *
+   * @param throwable error emitted by the source
+   * @param onRetrying called when the error is retried (scheduled or parked)
+   * @return Observable that emits when the source should be retried, or fails with the error if
+   * the retry is aborted
+   */
+  private Observable<?> retry(Throwable throwable, Consumer<Throwable> onRetrying)
+      throws Exception {
+    if (availability != null) {
+      return availableRetry(throwable, onRetrying);
+    }
+
+    long interval = nextInterval(throwable);
+    if (interval == Backoff.ABORT) {
+      return Observable.error(throwable);
+    }
+    onRetrying.accept(throwable);
+    return retryTimer(interval, throwable);
+  }
+
+  private Publisher<?> retryFlowable(Throwable throwable, Consumer<Throwable> onRetrying)
+      throws Exception {
+    if (availability != null) {
+      return availableRetry(throwable, onRetrying).toFlowable(BackpressureStrategy.LATEST);
+    }
+
+    long interval = nextInterval(throwable);
+    if (interval == Backoff.ABORT) {
+      return Flowable.error(throwable);
+    }
+    onRetrying.accept(throwable);
+    return retryTimerFlowable(interval, throwable);
+  }
+
+  /**
+   * Decide whether to retry the error. onAbort is called if the retry is aborted, and onRetry is
+   * called by {@link #retryTimer(long, Throwable)}.
+   *
+   * @param throwable error emitted by the source
+   * @return interval until the next retry (nanoseconds), or ABORT if the error is not retried
+   */
+  private long nextInterval(Throwable throwable) throws Exception {
+    if (!filter.test(throwable)) {
+      return Backoff.ABORT;
+    }
+
+    // the interval multiplied by the priority is counted in the elapsed time
+    long interval = backoff.intervalNanos(priority.getIntervalMultiplier());
+    if (interval == Backoff.ABORT) {
+      onAbort.accept(throwable);
+    }
+    return interval;
+  }
+
+  /**
+   * Call onRetry and wait for the retry interval. If the dispatcher is set, onRetry is called when
+   * the dispatcher releases the retry, and a shed retry calls only onAbort.
+   *
+   * @return Observable that emits when the retry interval elapsed. If the retry is shed by the
+   * dispatcher, it fails with the error of the source.
+   */
+  private Observable<Long> retryTimer(long interval, final Throwable throwable)
+      throws Exception {
+    final int retryCount = backoff.getRetryCount();
+    if (dispatcher == null) {
+      onRetry.accept(throwable, retryCount);
+      return Observable.timer(interval, TimeUnit.NANOSECONDS, intervalScheduler);
+    }
+
+    return dispatcher.timer(interval, TimeUnit.NANOSECONDS, priority)
+        .doOnNext(new Consumer<Long>() {
+          @Override public void accept(Long tick) throws Exception {
+            onRetry.accept(throwable, retryCount);
+          }
+        })
+        .onErrorResumeNext(new Function<Throwable, ObservableSource<Long>>() {
+          @Override public ObservableSource<Long> apply(Throwable e) throws Exception {
+            if (!(e instanceof RetryDispatcher.RetryShedException)) {
+              return Observable.error(e);
             }
+            onAbort.accept(throwable);
+            return Observable.error(throwable);
+          }
+        });
+  }
+
+  private Flowable<Long> retryTimerFlowable(long interval, Throwable throwable) throws Exception {
+    if (dispatcher == null) {
+      onRetry.accept(throwable, backoff.getRetryCount());
+      return Flowable.timer(interval, TimeUnit.NANOSECONDS, intervalScheduler);
+    }
+    return retryTimer(interval, throwable).toFlowable(BackpressureStrategy.LATEST);
+  }
 
-            long interval = backoff.interval();
-            if (interval != Backoff.ABORT) {
+  /**
+   * Retry with backoff interval, gated by the availability signal.
+   */
+  private Observable<?> availableRetry(final Throwable throwable,
+      final Consumer<Throwable> onRetrying) {
+    return availability.availability()
+        .take(1)
+        .flatMap(new Function<Boolean, ObservableSource<?>>() {
+          @Override public ObservableSource<?> apply(Boolean available) throws Exception {
+            if (!available) {
+              // park without consuming the retry count
+              if (!filter.test(throwable)) {
+                return Observable.error(throwable);
+              }
+              if (parkedRetries >= maxParkedRetries) {
+                onAbort.accept(throwable);
+                return Observable.error(throwable);
+              }
+              parkedRetries++;
               onRetry.accept(throwable, backoff.getRetryCount());
-              return Flowable.timer(interval, TimeUnit.MILLISECONDS, intervalScheduler);
-            } else {
-              onAbort.accept(throwable);
-              return Flowable.error(throwable);
+              onRetrying.accept(throwable);
+              return whenAvailable();
             }
+
+            long interval = nextInterval(throwable);
+            if (interval == Backoff.ABORT) {
+              return Observable.error(throwable);
+            }
+            onRetrying.accept(throwable);
+            return retryTimer(interval, throwable)
+                .flatMap(new Function<Long, ObservableSource<?>>() {
+                  @Override public ObservableSource<?> apply(Long tick) throws Exception {
+                    return availability.availability()
+                        .take(1)
+                        .flatMap(new Function<Boolean, ObservableSource<?>>() {
+                          @Override public ObservableSource<?> apply(Boolean available)
+                              throws Exception {
+                            return available ? Observable.just(0L) : whenAvailable();
+                          }
+                        });
+                  }
+                });
+          }
+        });
+  }
+
+  /**
+   * @return Observable that emits with jitter when the signal becomes available
+   */
+  private Observable<?> whenAvailable() {
+    return availability.availability()
+        .filter(new Predicate<Boolean>() {
+          @Override public boolean test(Boolean available) throws Exception {
+            return available;
+          }
+        })
+        .take(1)
+        .flatMap(new Function<Boolean, ObservableSource<?>>() {
+          @Override public ObservableSource<?> apply(Boolean available) throws Exception {
+            long jitter = (long) (Math.random() * (availabilityJitter + 1));
+            return Observable.timer(jitter, TimeUnit.NANOSECONDS, intervalScheduler);
+          }
+        });
+  }
+
+  /**
+   * Repeat the source with backoff interval for polling.
+   *
+   * While the source completes without new data (empty, or the same item as the last one), the
+   * polling interval is backed off by the algorithm. When new data arrives, the backoff is reset
+   * and the next polling is scheduled at the fastest interval.
+   * Polling completes when the maximum retry count or the maximum elapsed time is satisfied.
+   *
+   * <pre><code>
+   *   api.fetch().compose(RxBackoff.exponential(2.0, 10).&lt;Data&gt;pollingObservable())
+   * </code></pre>
+   *
+   * @return transformer that repeats the source
+   * @see #pollingObservable(BiPredicate)
+   */
+  public <T> ObservableTransformer<T, T> pollingObservable() {
+    return pollingObservable(RxBackoff.<T>equality());
+  }
+
+  /**
+   * Repeat the source with backoff interval for polling.
+   *
+   * Use this for items without value equality (e.g. arrays or responses), so that unchanged data
+   * is detected by the comparison.
+   *
+   * @param sameItem function that returns {@code true} if the item is the same as the last one
+   * @return transformer that repeats the source
+   * @see #pollingObservable()
+   */
+  public <T> ObservableTransformer<T, T> pollingObservable(
+      @NonNull final BiPredicate<? super T, ? super T> sameItem) {
+    return new ObservableTransformer<T, T>() {
+      @Override public ObservableSource<T> apply(final Observable<T> upstream) {
+        return Observable.defer(new Callable<ObservableSource<T>>() {
+          @Override public ObservableSource<T> call() throws Exception {
+            final PollingState<T> state = new PollingState<>(sameItem);
+            return upstream
+                .doOnNext(state)
+                .repeatWhen(new Function<Observable<Object>, ObservableSource<?>>() {
+                  @Override public ObservableSource<?> apply(Observable<Object> completions)
+                      throws Exception {
+                    return completions
+                        .map(new Function<Object, Long>() {
+                          @Override public Long apply(Object o) throws Exception {
+                            return pollingInterval(state);
+                          }
+                        })
+                        .takeWhile(NOT_ABORT)
+                        .flatMap(new Function<Long, ObservableSource<?>>() {
+                          @Override public ObservableSource<?> apply(Long interval)
+                              throws Exception {
+                            return Observable.timer(
+                                interval, TimeUnit.NANOSECONDS, intervalScheduler);
+                          }
+                        });
+                  }
+                });
+          }
+        });
+      }
+    };
+  }
+
+  /**
+   * Repeat the source with backoff interval for polling.
+   *
+   * @return transformer that repeats the source
+   * @see #pollingObservable()
+   */
+  public <T> FlowableTransformer<T, T> pollingFlowable() {
+    return pollingFlowable(RxBackoff.<T>equality());
+  }
+
+  /**
+   * Repeat the source with backoff interval for polling.
+   *
+   * @param sameItem function that returns {@code true} if the item is the same as the last one
+   * @return transformer that repeats the source
+   * @see #pollingObservable(BiPredicate)
+   */
+  public <T> FlowableTransformer<T, T> pollingFlowable(
+      @NonNull final BiPredicate<? super T, ? super T> sameItem) {
+    return new FlowableTransformer<T, T>() {
+      @Override public Publisher<T> apply(final Flowable<T> upstream) {
+        return Flowable.defer(new Callable<Publisher<T>>() {
+          @Override public Publisher<T> call() throws Exception {
+            final PollingState<T> state = new PollingState<>(sameItem);
+            return upstream
+                .doOnNext(state)
+                .repeatWhen(new Function<Flowable<Object>, Publisher<?>>() {
+                  @Override public Publisher<?> apply(Flowable<Object> completions)
+                      throws Exception {
+                    return completions
+                        .map(new Function<Object, Long>() {
+                          @Override public Long apply(Object o) throws Exception {
+                            return pollingInterval(state);
+                          }
+                        })
+                        .takeWhile(NOT_ABORT)
+                        // at most one pending timer, as in flowable()
+                        .concatMap(new Function<Long, Publisher<?>>() {
+                          @Override public Publisher<?> apply(Long interval) throws Exception {
+                            return Flowable.timer(
+                                interval, TimeUnit.NANOSECONDS, intervalScheduler);
+                          }
+                        }, 1);
+                  }
+                });
           }
         });
       }
     };
   }
+
+  private long pollingInterval(PollingState<?> state) {
+    if (state.changed) {
+      state.changed = false;
+      backoff.reset();
+    }
+    return backoff.intervalNanos();
+  }
+
+  private static <T> BiPredicate<T, T> equality() {
+    return new BiPredicate<T, T>() {
+      @Override public boolean test(T last, T item) throws Exception {
+        return last == null ? item == null : last.equals(item);
+      }
+    };
+  }
+
+  private static final Consumer<Throwable> NO_OP = new Consumer<Throwable>() {
+    @Override public void accept(Throwable throwable) throws Exception {
+      // no-op
+    }
+  };
+
+  private static final Predicate<Long> NOT_ABORT = new Predicate<Long>() {
+    @Override public boolean test(Long interval) throws Exception {
+      return interval != Backoff.ABORT;
+    }
+  };
+
+  /**
+   * Remember the last checkpoint, and reset the backoff when it advances after a retry.
+   */
+  private class Checkpoint<T, C> implements Consumer<T> {
+
+    private final Function<? super T, ? extends C> checkpointOf;
+
+    private volatile C last;
+
+    Checkpoint(C initial, Function<? super T, ? extends C> checkpointOf) {
+      this.last = initial;
+      this.checkpointOf = checkpointOf;
+    }
+
+    @Override public void accept(T value) throws Exception {
+      C next = checkpointOf.apply(value);
+      if (backoff.getRetryCount() > 0 && !(last == null ? next == null : last.equals(next))) {
+        backoff.reset();
+      }
+      last = next;
+    }
+  }
+
+  /**
+   * Remember the last polled item to detect whether new data has arrived.
+   */
+  private static class PollingState<T> implements Consumer<T> {
+
+    private final BiPredicate<? super T, ? super T> sameItem;
+
+    private T last;
+    private boolean received = false;
+    private boolean changed = false;
+
+    PollingState(BiPredicate<? super T, ? super T> sameItem) {
+      this.sameItem = sameItem;
+    }
+
+    @Override public void accept(T item) throws Exception {
+      if (!received || !sameItem.test(last, item)) {
+        changed = true;
+      }
+      last = item;
+      received = true;
+    }
+  }
 }
@@ -0,0 +1,214 @@
+package com.yuki312.backoff.rxjava2;
+
+import android.support.annotation.NonNull;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.flowables.ConnectableFlowable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.observables.ConnectableObservable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+/**
+ * Coalesce concurrent retrying subscriptions for the same key.
+ *
+ * <pre><code>
+ *   SingleFlight&lt;String&gt; flights = new SingleFlight&lt;&gt;(new Callable&lt;RxBackoff&gt;() {
+ *     public RxBackoff call() {
+ *       return RxBackoff.exponential(2.0, 5);
+ *     }
+ *   });
+ *
+ *   flights.observable(id, api.user(id)).subscribe(...)
+ * </code></pre>
+ *
+ * Concurrent subscriptions for the same key share one subscription to the source and one backoff
+ * schedule, and receive the same result. The shared retry chain is disposed when the last
+ * subscriber leaves, and a subscription after the source terminated starts a new flight.
+ *
+ * @param <K> the type of keys
+ */
+public class SingleFlight<K> {
+
+  @NonNull private final Callable<RxBackoff> backoffFactory;
+
+  private final Map<K, Flight<ConnectableObservable<?>>> observables = new HashMap<>();
+  private final Map<K, Flight<ConnectableFlowable<?>>> flowables = new HashMap<>();
+
+  /**
+   * Construct SingleFlight.
+   *
+   * @param backoffFactory create RxBackoff for each flight. RxBackoff holds the retry count, so
+   * a new instance must be returned every time.
+   */
+  public SingleFlight(@NonNull Callable<RxBackoff> backoffFactory) {
+    this.backoffFactory = backoffFactory;
+  }
+
+  /**
+   * Subscribe the source with retry, or join the flight in progress for the same key.
+   *
+   * @param key key of the flight
+   * @param source source used when no flight is in progress for the key
+   * @return Observable shared among the subscriptions for the key
+   */
+  public <T> Observable<T> observable(@NonNull final K key, @NonNull final Observable<T> source) {
+    return Observable.unsafeCreate(new ObservableSource<T>() {
+      @Override public void subscribe(Observer<? super T> observer) {
+        final Flight<ConnectableObservable<?>> flight;
+        boolean created = false;
+        try {
+          synchronized (SingleFlight.this) {
+            Flight<ConnectableObservable<?>> f = observables.get(key);
+            if (f == null) {
+              f = new Flight<>();
+              f.published = source
+                  .retryWhen(backoffFactory.call().observable())
+                  .doOnTerminate(land(observables, key, f))
+                  .publish();
+              observables.put(key, f);
+              created = true;
+            }
+            flight = f;
+            // join under the lock, so the flight can neither land nor be disposed in between
+            flight.subscribers++;
+            @SuppressWarnings("unchecked")
+            ConnectableObservable<T> published = (ConnectableObservable<T>) flight.published;
+            published
+                .doOnDispose(leave(observables, key, flight))
+                .subscribe(observer);
+          }
+        } catch (Throwable e) {
+          Exceptions.throwIfFatal(e);
+          Observable.<T>error(e).subscribe(observer);
+          return;
+        }
+        if (created) {
+          flight.published.connect(connected(flight));
+        }
+      }
+    });
+  }
+
+  /**
+   * Subscribe the source with retry, or join the flight in progress for the same key.
+   *
+   * @param key key of the flight
+   * @param source source used when no flight is in progress for the key
+   * @return Flowable shared among the subscriptions for the key
+   */
+  public <T> Flowable<T> flowable(@NonNull final K key, @NonNull final Flowable<T> source) {
+    return Flowable.unsafeCreate(new Publisher<T>() {
+      @Override public void subscribe(Subscriber<? super T> subscriber) {
+        final Flight<ConnectableFlowable<?>> flight;
+        boolean created = false;
+        try {
+          synchronized (SingleFlight.this) {
+            Flight<ConnectableFlowable<?>> f = flowables.get(key);
+            if (f == null) {
+              f = new Flight<>();
+              f.published = source
+                  .retryWhen(backoffFactory.call().flowable())
+                  .doOnTerminate(land(flowables, key, f))
+                  .publish();
+              flowables.put(key, f);
+              created = true;
+            }
+            flight = f;
+            // join under the lock, so the flight can neither land nor be disposed in between
+            flight.subscribers++;
+            @SuppressWarnings("unchecked")
+            ConnectableFlowable<T> published = (ConnectableFlowable<T>) flight.published;
+            published
+                .doOnCancel(leave(flowables, key, flight))
+                .subscribe(subscriber);
+          }
+        } catch (Throwable e) {
+          Exceptions.throwIfFatal(e);
+          Flowable.<T>error(e).subscribe(subscriber);
+          return;
+        }
+        if (created) {
+          flight.published.connect(connected(flight));
+        }
+      }
+    });
+  }
+
+  /**
+   * Remove the flight before its terminal event is delivered, so a later subscription starts a
+   * new flight.
+   */
+  private <C> Action land(final Map<K, Flight<C>> flights, final K key, final Flight<C> flight) {
+    return new Action() {
+      @Override public void run() throws Exception {
+        synchronized (SingleFlight.this) {
+          remove(flights, key, flight);
+        }
+      }
+    };
+  }
+
+  /**
+   * Dispose the flight when the last subscriber leaves.
+   */
+  private <C> Action leave(final Map<K, Flight<C>> flights, final K key, final Flight<C> flight) {
+    return new Action() {
+      @Override public void run() throws Exception {
+        Disposable connection = null;
+        synchronized (SingleFlight.this) {
+          flight.subscribers--;
+          if (flight.subscribers == 0 && !flight.landed) {
+            remove(flights, key, flight);
+            connection = flight.connection;
+          }
+        }
+        if (connection != null) {
+          connection.dispose();
+        }
+      }
+    };
+  }
+
+  private Consumer<Disposable> connected(final Flight<?> flight) {
+    return new Consumer<Disposable>() {
+      @Override public void accept(Disposable connection) throws Exception {
+        boolean disposed;
+        synchronized (SingleFlight.this) {
+          // the flight has not started yet, so it has landed only if all subscribers left
+          disposed = flight.landed;
+          flight.connection = connection;
+        }
+        if (disposed) {
+          connection.dispose();
+        }
+      }
+    };
+  }
+
+  private <C> void remove(Map<K, Flight<C>> flights, K key, Flight<C> flight) {
+    flight.landed = true;
+    if (flights.get(key) == flight) {
+      flights.remove(key);
+    }
+  }
+
+  /**
+   * Shared retry chain for a key. Fields are guarded by the SingleFlight lock.
+   */
+  private static class Flight<C> {
+
+    C published;
+    int subscribers = 0;
+    boolean landed = false;
+    Disposable connection;
+  }
+}
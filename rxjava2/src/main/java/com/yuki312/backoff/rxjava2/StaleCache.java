@@ -0,0 +1,105 @@
+package com.yuki312.backoff.rxjava2;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of the last good values, used while retrying.
+ * The least recently used value is evicted when the cache is full, and values older than TTL are
+ * never returned.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of cached values
+ * @see RxBackoff#staleWhileRetrying(StaleCache, Object)
+ */
+public class StaleCache<K, V> {
+
+  private final long ttl; // milliseconds
+  private final Scheduler clock;
+  private final LinkedHashMap<K, Item<V>> entries;
+
+  /**
+   * Construct StaleCache.
+   *
+   * @param maxSize the maximum number of cached values
+   * @param ttl time to live of cached values
+   * @param unit the units of time that {@code ttl} is expressed in
+   */
+  public StaleCache(@IntRange(from = 1) int maxSize, long ttl, @NonNull TimeUnit unit) {
+    this(maxSize, ttl, unit, Schedulers.computation());
+  }
+
+  /**
+   * Construct StaleCache.
+   *
+   * @param maxSize the maximum number of cached values
+   * @param ttl time to live of cached values
+   * @param unit the units of time that {@code ttl} is expressed in
+   * @param clock Scheduler used as the clock of TTL
+   */
+  public StaleCache(@IntRange(from = 1) final int maxSize, long ttl, @NonNull TimeUnit unit,
+      @NonNull Scheduler clock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("MaxSize is invalid. Must be greater than 1.");
+    }
+    if (ttl < 0) {
+      throw new IllegalArgumentException("TTL is invalid. Must be greater or equal 0.");
+    }
+
+    this.ttl = unit.toMillis(ttl);
+    this.clock = clock;
+    this.entries = new LinkedHashMap<K, Item<V>>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<K, Item<V>> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  public synchronized void put(@NonNull K key, @NonNull V value) {
+    entries.put(key, new Item<>(value, clock.now(TimeUnit.MILLISECONDS)));
+  }
+
+  /**
+   * @return cached value, or null if it is not cached or expired
+   */
+  @Nullable public synchronized V get(@NonNull K key) {
+    Item<V> item = entries.get(key);
+    if (item == null) {
+      return null;
+    }
+    if (clock.now(TimeUnit.MILLISECONDS) - item.time > ttl) {
+      entries.remove(key);
+      return null;
+    }
+    return item.value;
+  }
+
+  public synchronized void remove(@NonNull K key) {
+    entries.remove(key);
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static class Item<V> {
+
+    final V value;
+    final long time;
+
+    Item(V value, long time) {
+      this.value = value;
+      this.time = time;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.yuki312.backoff.rxjava2;
+
+import android.support.annotation.NonNull;
+import io.reactivex.Observable;
+import io.reactivex.subjects.BehaviorSubject;
+
+/**
+ * AvailabilitySignal that is switched manually. Useful for testing.
+ */
+public class TestAvailabilitySignal implements AvailabilitySignal {
+
+  private final BehaviorSubject<Boolean> availability;
+
+  public TestAvailabilitySignal(boolean available) {
+    this.availability = BehaviorSubject.createDefault(available);
+  }
+
+  public void setAvailable(boolean available) {
+    availability.onNext(available);
+  }
+
+  public boolean isAvailable() {
+    return availability.getValue();
+  }
+
+  @NonNull @Override public Observable<Boolean> availability() {
+    return availability.distinctUntilChanged();
+  }
+}
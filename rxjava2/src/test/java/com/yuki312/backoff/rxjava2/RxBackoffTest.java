@@ -1,18 +1,33 @@
 package com.yuki312.backoff.rxjava2;
 
 import com.yuki312.backoff.core.Backoff;
+import com.yuki312.backoff.core.ExponentialAlgorithm;
 import com.yuki312.backoff.core.FixedIntervalAlgorithm;
 import com.yuki312.backoff.core.RandomIntervalAlgorithm;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.BiPredicate;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.operators.flowable.FlowableTimer;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.reactivestreams.Subscription;
 
+import static com.yuki312.backoff.core.ExponentialAlgorithm.NO_RANGE;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @RunWith(JUnit4.class)
@@ -45,6 +60,63 @@ public class RxBackoffTest {
     assertThat(count.get()).isEqualTo(6); // try(1 time) + retry(5 times)
   }
 
+  @Test
+  public void flowable_manyRetries() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final AtomicInteger timers = new AtomicInteger(0);
+    final AtomicInteger maxTimers = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final RxBackoff backoff = new RxBackoff(
+        new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm(1L, TimeUnit.MILLISECONDS))
+            .setMaxRetryCount(1_000_000)
+            .setUnlimitedElapsedTime()
+            .build(),
+        scheduler);
+
+    // count the live timer subscriptions
+    RxJavaPlugins.setOnFlowableAssembly(new Function<Flowable, Flowable>() {
+      @Override public Flowable apply(Flowable flowable) throws Exception {
+        if (!(flowable instanceof FlowableTimer)) {
+          return flowable;
+        }
+        return flowable
+            .doOnSubscribe(new Consumer<Subscription>() {
+              @Override public void accept(Subscription s) throws Exception {
+                int live = timers.incrementAndGet();
+                if (live > maxTimers.get()) {
+                  maxTimers.set(live);
+                }
+              }
+            })
+            // before the terminal event is delivered to the retry handler
+            .doOnTerminate(new Action() {
+              @Override public void run() throws Exception {
+                timers.decrementAndGet();
+              }
+            });
+      }
+    });
+    try {
+      final TestSubscriber<Integer> subscriber = Flowable
+          .fromCallable(new Callable<Integer>() {
+            @Override public Integer call() throws Exception {
+              throw new Exception("error " + count.incrementAndGet());
+            }
+          })
+          .retryWhen(backoff.flowable())
+          .test(0L);
+
+      scheduler.advanceTimeBy(1_000_000L, TimeUnit.MILLISECONDS);
+      subscriber.assertErrorMessage("error 1000001"); // try(1 time) + retry(1000000 times)
+      assertThat(count.get()).isEqualTo(1_000_001);
+      assertThat(maxTimers.get()).isEqualTo(1); // at most one pending timer
+      assertThat(timers.get()).isEqualTo(0);
+    } finally {
+      RxJavaPlugins.reset();
+    }
+  }
+
   @Test
   public void random() {
     final AtomicInteger count = new AtomicInteger(0);
@@ -75,4 +147,613 @@ public class RxBackoffTest {
     observer.assertError(Exception.class);
     assertThat(count.get()).isGreaterThanOrEqualTo(4); // try(1 time) + retry(n times)
   }
+
+  @Test
+  public void polling() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final RxBackoff backoff = new RxBackoff(
+        new Backoff.Builder()
+            .setAlgorithm(new ExponentialAlgorithm(100L, 2.0, 10_000L, NO_RANGE))
+            .setMaxRetryCount(3)
+            .build(),
+        scheduler);
+    final TestObserver<Integer> observer = Observable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            // new data on 1st and 3rd poll, unchanged data otherwise
+            return count.incrementAndGet() < 3 ? 1 : 2;
+          }
+        })
+        .compose(backoff.<Integer>pollingObservable())
+        .subscribeOn(scheduler)
+        .test();
+
+    scheduler.triggerActions();
+    assertThat(count.get()).isEqualTo(1);
+    scheduler.advanceTimeBy(100L, TimeUnit.MILLISECONDS); // fastest interval after new data
+    assertThat(count.get()).isEqualTo(2);
+    scheduler.advanceTimeBy(199L, TimeUnit.MILLISECONDS); // backed off while unchanged
+    assertThat(count.get()).isEqualTo(2);
+    scheduler.advanceTimeBy(1L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(3);
+    scheduler.advanceTimeBy(100L, TimeUnit.MILLISECONDS); // reset to the fastest interval
+    assertThat(count.get()).isEqualTo(4);
+
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    observer.assertComplete();
+    observer.assertValues(1, 1, 2, 2, 2, 2);
+  }
+
+  @Test
+  public void polling_sameItem() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final RxBackoff backoff = new RxBackoff(
+        new Backoff.Builder()
+            .setAlgorithm(new ExponentialAlgorithm(100L, 2.0, 10_000L, NO_RANGE))
+            .setMaxRetryCount(3)
+            .build(),
+        scheduler);
+    final TestObserver<int[]> observer = Observable
+        .fromCallable(new Callable<int[]>() {
+          @Override public int[] call() throws Exception {
+            count.incrementAndGet();
+            return new int[] { 1 }; // a new array without value equality on each poll
+          }
+        })
+        .compose(backoff.pollingObservable(new BiPredicate<int[], int[]>() {
+          @Override public boolean test(int[] last, int[] item) throws Exception {
+            return Arrays.equals(last, item);
+          }
+        }))
+        .subscribeOn(scheduler)
+        .test();
+
+    scheduler.triggerActions();
+    scheduler.advanceTimeBy(100L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(2);
+    scheduler.advanceTimeBy(199L, TimeUnit.MILLISECONDS); // backed off while unchanged
+    assertThat(count.get()).isEqualTo(2);
+    scheduler.advanceTimeBy(1L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(3);
+
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    observer.assertComplete();
+    assertThat(count.get()).isEqualTo(4); // try(1 time) + repeat(3 times)
+  }
+
+  @Test
+  public void staleWhileRetrying() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final StaleCache<String, String> cache = new StaleCache<>(10, 1L, TimeUnit.HOURS, scheduler);
+    cache.put("key", "stale");
+    final RxBackoff backoff = new RxBackoff(
+        new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm())
+            .setMaxRetryCount(5)
+            .build(),
+        scheduler);
+    final TestObserver<String> observer = Observable
+        .fromCallable(new Callable<String>() {
+          @Override public String call() throws Exception {
+            if (count.incrementAndGet() < 3) {
+              throw new Exception("error " + count.get());
+            }
+            return "fresh";
+          }
+        })
+        .compose(backoff.<String, String>staleWhileRetrying(cache, "key"))
+        .subscribeOn(scheduler)
+        .test();
+
+    scheduler.triggerActions();
+    observer.assertValues("stale");
+    observer.assertNotComplete();
+
+    scheduler.advanceTimeBy(1000L, TimeUnit.MILLISECONDS);
+    observer.assertValues("stale", "fresh");
+    observer.assertComplete();
+    assertThat(cache.get("key")).isEqualTo("fresh");
+  }
+
+  @Test
+  public void staleWhileRetrying_deadline() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final StaleCache<String, String> cache = new StaleCache<>(10, 1L, TimeUnit.HOURS, scheduler);
+    cache.put("key", "stale");
+    final RxBackoff backoff = new RxBackoff(
+        new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm())
+            .setMaxRetryCount(5)
+            .build(),
+        scheduler);
+    final TestObserver<String> observer = Observable
+        .fromCallable(new Callable<String>() {
+          @Override public String call() throws Exception {
+            if (count.incrementAndGet() < 2) {
+              throw new Exception("error " + count.get());
+            }
+            return "fresh";
+          }
+        })
+        .compose(backoff.<String, String>staleWhileRetrying(
+            cache, "key", 800L, TimeUnit.MILLISECONDS))
+        .subscribeOn(scheduler)
+        .test();
+
+    // fresh value arrives in 500ms, before the deadline
+    scheduler.advanceTimeBy(1000L, TimeUnit.MILLISECONDS);
+    observer.assertValues("fresh");
+    observer.assertComplete();
+  }
+
+  @Test
+  public void staleWhileRetrying_waitForAvailability() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final TestAvailabilitySignal signal = new TestAvailabilitySignal(false);
+    final StaleCache<String, String> cache = new StaleCache<>(10, 1L, TimeUnit.HOURS, scheduler);
+    cache.put("key", "stale");
+    final Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm())
+        .setMaxRetryCount(5)
+        .build();
+    final TestObserver<String> observer = Observable
+        .fromCallable(new Callable<String>() {
+          @Override public String call() throws Exception {
+            throw new Exception("error " + count.incrementAndGet());
+          }
+        })
+        .compose(new RxBackoff(backoff, scheduler)
+            .waitForAvailability(signal)
+            .<String, String>staleWhileRetrying(cache, "key"))
+        .subscribeOn(scheduler)
+        .test();
+
+    // the error while unavailable is parked, and the cached value is emitted
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    observer.assertValues("stale");
+    assertThat(count.get()).isEqualTo(1);
+    assertThat(backoff.getRetryCount()).isEqualTo(0);
+
+    signal.setAvailable(true);
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    observer.assertError(Exception.class);
+    assertThat(count.get()).isEqualTo(7); // try(1 time) + parked retry(1 time) + retry(5 times)
+  }
+
+  @Test
+  public void staleCache_eviction() {
+    final TestScheduler scheduler = new TestScheduler();
+    final StaleCache<String, String> cache = new StaleCache<>(2, 1L, TimeUnit.SECONDS, scheduler);
+    cache.put("a", "A");
+    cache.put("b", "B");
+    cache.get("a");
+    cache.put("c", "C"); // evicts the least recently used "b"
+    assertThat(cache.get("b")).isNull();
+    assertThat(cache.get("a")).isEqualTo("A");
+
+    scheduler.advanceTimeBy(2L, TimeUnit.SECONDS);
+    assertThat(cache.get("c")).isNull();
+  }
+
+  @Test
+  public void singleFlight() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final SingleFlight<String> flights = new SingleFlight<>(new Callable<RxBackoff>() {
+      @Override public RxBackoff call() throws Exception {
+        return new RxBackoff(new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm())
+            .setMaxRetryCount(5)
+            .build(),
+            scheduler);
+      }
+    });
+    final Observable<Integer> source = Observable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            if (count.incrementAndGet() < 3) {
+              throw new Exception("error " + count.get());
+            }
+            return count.get();
+          }
+        })
+        .subscribeOn(scheduler);
+
+    final TestObserver<Integer> first = flights.observable("key", source).test();
+    final TestObserver<Integer> second = flights.observable("key", source).test();
+    final TestObserver<Integer> other = flights.observable("other", source).test();
+
+    scheduler.advanceTimeBy(1000L, TimeUnit.MILLISECONDS);
+    first.assertResult(3);
+    second.assertResult(3);
+    other.assertResult(4); // "other" runs its own flight
+    assertThat(count.get()).isEqualTo(4);
+
+    // a new flight starts after the previous one landed
+    flights.observable("key", source).test();
+    scheduler.triggerActions();
+    assertThat(count.get()).isEqualTo(5);
+  }
+
+  @Test
+  public void singleFlight_dispose() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final SingleFlight<String> flights = new SingleFlight<>(new Callable<RxBackoff>() {
+      @Override public RxBackoff call() throws Exception {
+        return new RxBackoff(new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm())
+            .setMaxRetryCount(5)
+            .build(),
+            scheduler);
+      }
+    });
+    final Observable<Integer> source = Observable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            throw new Exception("error " + count.incrementAndGet());
+          }
+        })
+        .subscribeOn(scheduler);
+
+    final TestObserver<Integer> first = flights.observable("key", source).test();
+    final TestObserver<Integer> second = flights.observable("key", source).test();
+    scheduler.triggerActions();
+    assertThat(count.get()).isEqualTo(1);
+
+    first.dispose();
+    scheduler.advanceTimeBy(500L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(2); // still retrying for the second subscriber
+
+    second.dispose();
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(2); // disposed with the last subscriber
+  }
+
+  @Test
+  public void singleFlight_rejoin() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final AtomicInteger flightCount = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final SingleFlight<String> flights = new SingleFlight<>(new Callable<RxBackoff>() {
+      @Override public RxBackoff call() throws Exception {
+        flightCount.incrementAndGet();
+        return new RxBackoff(new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm())
+            .setMaxRetryCount(1)
+            .build(),
+            scheduler);
+      }
+    });
+    final Flowable<Integer> source = Flowable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            throw new Exception("error " + count.incrementAndGet());
+          }
+        })
+        .subscribeOn(scheduler);
+
+    final TestSubscriber<Integer> first = flights.flowable("key", source).test();
+    final TestSubscriber<Integer> second = flights.flowable("key", source).test();
+    scheduler.triggerActions();
+    first.dispose();
+    second.dispose();
+    assertThat(count.get()).isEqualTo(1);
+
+    // a subscription after the last subscriber left starts a new flight with a new backoff
+    final TestSubscriber<Integer> third = flights.flowable("key", source).test();
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    third.assertErrorMessage("error 3"); // try(1 time) + retry(1 time) in the new flight
+    assertThat(flightCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void waitForAvailability() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final TestAvailabilitySignal signal = new TestAvailabilitySignal(true);
+    final Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm())
+        .setMaxRetryCount(5)
+        .build();
+    final TestObserver observer = Observable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            throw new Exception("error " + count.incrementAndGet());
+          }
+        })
+        .retryWhen(new RxBackoff(backoff, scheduler)
+            .waitForAvailability(signal, 100L, TimeUnit.MILLISECONDS)
+            .observable())
+        .subscribeOn(scheduler)
+        .test();
+
+    scheduler.triggerActions();
+    assertThat(count.get()).isEqualTo(1);
+    assertThat(backoff.getRetryCount()).isEqualTo(1);
+
+    // the retry whose interval elapsed while unavailable is parked
+    signal.setAvailable(false);
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(1);
+    assertThat(backoff.getRetryCount()).isEqualTo(1);
+
+    // released within the jitter
+    signal.setAvailable(true);
+    scheduler.advanceTimeBy(100L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(2);
+
+    scheduler.advanceTimeBy(90_000L, TimeUnit.MILLISECONDS);
+    observer.assertError(Exception.class);
+    assertThat(count.get()).isEqualTo(6); // try(1 time) + retry(5 times)
+  }
+
+  @Test
+  public void waitForAvailability_parkError() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final TestAvailabilitySignal signal = new TestAvailabilitySignal(false);
+    final Backoff backoff = new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm())
+        .setMaxRetryCount(5)
+        .build();
+    Observable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            throw new Exception("error " + count.incrementAndGet());
+          }
+        })
+        .retryWhen(new RxBackoff(backoff, scheduler)
+            .waitForAvailability(signal)
+            .observable())
+        .subscribeOn(scheduler)
+        .test();
+
+    // the error while unavailable is parked without consuming the retry count
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    assertThat(count.get()).isEqualTo(1);
+    assertThat(backoff.getRetryCount()).isEqualTo(0);
+
+    signal.setAvailable(true);
+    scheduler.triggerActions();
+    assertThat(count.get()).isEqualTo(2);
+    assertThat(backoff.getRetryCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void waitForAvailability_maxParkedRetries() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final AtomicInteger retried = new AtomicInteger(0);
+    final AtomicInteger aborted = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final TestAvailabilitySignal signal = new TestAvailabilitySignal(false);
+    final TestObserver<Integer> observer = Observable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            throw new Exception("error " + count.incrementAndGet());
+          }
+        })
+        .retryWhen(fixedBackoff(scheduler)
+            .waitForAvailability(signal, 0L, TimeUnit.MILLISECONDS, 2)
+            .doOnRetry(new BiConsumer<Throwable, Integer>() {
+              @Override public void accept(Throwable e, Integer retry) throws Exception {
+                retried.incrementAndGet();
+              }
+            })
+            .doOnAbort(new Consumer<Throwable>() {
+              @Override public void accept(Throwable e) throws Exception {
+                aborted.incrementAndGet();
+              }
+            })
+            .observable())
+        .test();
+
+    // the signal flaps, and every retry fails while unavailable
+    for (int i = 0; i < 5; i++) {
+      signal.setAvailable(true);
+      signal.setAvailable(false);
+      scheduler.triggerActions();
+    }
+
+    observer.assertErrorMessage("error 3"); // try(1 time) + parked retry(2 times)
+    assertThat(retried.get()).isEqualTo(2);
+    assertThat(aborted.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void priority() {
+    final List<String> fired = new ArrayList<>();
+    final TestScheduler scheduler = new TestScheduler();
+    final RetryDispatcher dispatcher = new RetryDispatcher(scheduler);
+
+    final TestObserver<String> low = failOnce("low", fired)
+        .retryWhen(fixedBackoff(scheduler).dispatcher(dispatcher)
+            .priority(RetryPriority.LOW).observable())
+        .test();
+    final TestObserver<String> normal = failOnce("normal", fired)
+        .retryWhen(fixedBackoff(scheduler).dispatcher(dispatcher).observable())
+        .test();
+    final TestObserver<String> high = failOnce("high", fired)
+        .retryWhen(fixedBackoff(scheduler).dispatcher(dispatcher)
+            .priority(RetryPriority.HIGH).observable())
+        .test();
+
+    // retries due together fire in priority order
+    scheduler.advanceTimeBy(500L, TimeUnit.MILLISECONDS);
+    assertThat(fired).containsExactly("high", "normal");
+    high.assertResult("high");
+    normal.assertResult("normal");
+    low.assertNotTerminated();
+
+    // low priority interval is multiplied (500ms x2.0)
+    scheduler.advanceTimeBy(500L, TimeUnit.MILLISECONDS);
+    assertThat(fired).containsExactly("high", "normal", "low");
+    low.assertResult("low");
+  }
+
+  @Test
+  public void priority_coalescingWindow() {
+    final List<String> fired = new ArrayList<>();
+    final TestScheduler scheduler = new TestScheduler();
+    final RetryDispatcher dispatcher = new RetryDispatcher(scheduler);
+
+    final TestObserver<String> normal = failOnce("normal", fired)
+        .retryWhen(fixedBackoff(scheduler).dispatcher(dispatcher).observable())
+        .test();
+    scheduler.advanceTimeBy(3L, TimeUnit.NANOSECONDS);
+    final TestObserver<String> high = failOnce("high", fired)
+        .retryWhen(fixedBackoff(scheduler).dispatcher(dispatcher)
+            .priority(RetryPriority.HIGH).observable())
+        .test();
+
+    // retries due a few nanoseconds apart fire in priority order
+    scheduler.advanceTimeBy(1000L, TimeUnit.MILLISECONDS);
+    assertThat(fired).containsExactly("high", "normal");
+    high.assertResult("high");
+    normal.assertResult("normal");
+  }
+
+  @Test
+  public void priority_shed() {
+    final List<String> fired = new ArrayList<>();
+    final AtomicInteger retried = new AtomicInteger(0);
+    final AtomicInteger aborted = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final RetryDispatcher dispatcher = new RetryDispatcher(scheduler, 1);
+
+    final TestObserver<String> low = failOnce("low", fired)
+        .retryWhen(fixedBackoff(scheduler).dispatcher(dispatcher)
+            .priority(RetryPriority.LOW)
+            .doOnRetry(new BiConsumer<Throwable, Integer>() {
+              @Override public void accept(Throwable e, Integer retry) throws Exception {
+                retried.incrementAndGet();
+              }
+            })
+            .doOnAbort(new Consumer<Throwable>() {
+              @Override public void accept(Throwable e) throws Exception {
+                aborted.incrementAndGet();
+              }
+            })
+            .observable())
+        .test();
+    final TestObserver<String> high = failOnce("high", fired)
+        .retryWhen(fixedBackoff(scheduler).dispatcher(dispatcher)
+            .priority(RetryPriority.HIGH).observable())
+        .test();
+
+    // the lower priority retry is shed with the error of the source
+    low.assertErrorMessage("error low");
+    assertThat(retried.get()).isEqualTo(0);
+    assertThat(aborted.get()).isEqualTo(1);
+
+    scheduler.advanceTimeBy(1000L, TimeUnit.MILLISECONDS);
+    high.assertResult("high");
+    assertThat(fired).containsExactly("high");
+  }
+
+  @Test
+  public void resumable() {
+    final List<Integer> offsets = new ArrayList<>();
+    final TestScheduler scheduler = new TestScheduler();
+
+    final TestObserver<Integer> observer = fixedBackoff(scheduler)
+        .resumable(0,
+            new Function<Integer, Integer>() {
+              @Override public Integer apply(Integer item) throws Exception {
+                return item + 1;
+              }
+            },
+            new Function<Integer, Observable<Integer>>() {
+              @Override public Observable<Integer> apply(Integer offset) throws Exception {
+                offsets.add(offset);
+                // fails after 4 items until the end of the stream
+                Observable<Integer> items = Observable.range(offset, Math.min(4, 10 - offset));
+                return offset + 4 < 10
+                    ? items.concatWith(Observable.<Integer>error(new Exception("error")))
+                    : items;
+              }
+            })
+        .test();
+
+    scheduler.advanceTimeBy(1000L, TimeUnit.MILLISECONDS);
+    observer.assertResult(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    assertThat(offsets).containsExactly(0, 4, 8);
+  }
+
+  @Test
+  public void resumable_resetOnProgress() {
+    final TestScheduler scheduler = new TestScheduler();
+
+    final TestObserver<Integer> observer = fixedBackoff(scheduler)
+        .resumable(0,
+            new Function<Integer, Integer>() {
+              @Override public Integer apply(Integer item) throws Exception {
+                return item + 1;
+              }
+            },
+            new Function<Integer, Observable<Integer>>() {
+              @Override public Observable<Integer> apply(Integer offset) throws Exception {
+                // fails after each item until the end of the stream
+                Observable<Integer> item = Observable.just(offset);
+                return offset < 9
+                    ? item.concatWith(Observable.<Integer>error(new Exception("error")))
+                    : item;
+              }
+            })
+        .test();
+
+    // 9 failures with the max retry count 5, each after progress
+    scheduler.advanceTimeBy(4500L, TimeUnit.MILLISECONDS);
+    observer.assertResult(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+  }
+
+  @Test
+  public void priority_maxElapsedTime() {
+    final AtomicInteger count = new AtomicInteger(0);
+    final TestScheduler scheduler = new TestScheduler();
+    final TestObserver<Integer> observer = Observable
+        .fromCallable(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            throw new Exception("error " + count.incrementAndGet());
+          }
+        })
+        .retryWhen(new RxBackoff(new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm())
+            .setMaxElapsedTime(1000L, TimeUnit.MILLISECONDS)
+            .build(),
+            scheduler)
+            .priority(RetryPriority.LOW)
+            .observable())
+        .test();
+
+    // the multiplied interval (500ms x2.0) is counted in the elapsed time
+    scheduler.advanceTimeBy(10_000L, TimeUnit.MILLISECONDS);
+    observer.assertErrorMessage("error 2"); // try(1 time) + retry(1 time)
+  }
+
+  private static RxBackoff fixedBackoff(TestScheduler scheduler) {
+    return new RxBackoff(new Backoff.Builder()
+        .setAlgorithm(new FixedIntervalAlgorithm())
+        .setMaxRetryCount(5)
+        .build(),
+        scheduler);
+  }
+
+  private static Observable<String> failOnce(final String name, final List<String> fired) {
+    final AtomicInteger count = new AtomicInteger(0);
+    return Observable.fromCallable(new Callable<String>() {
+      @Override public String call() throws Exception {
+        if (count.incrementAndGet() == 1) {
+          throw new Exception("error " + name);
+        }
+        fired.add(name);
+        return name;
+      }
+    });
+  }
 }
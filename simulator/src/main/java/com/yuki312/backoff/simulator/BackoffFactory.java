@@ -0,0 +1,15 @@
+package com.yuki312.backoff.simulator;
+
+import android.support.annotation.NonNull;
+import com.yuki312.backoff.core.Backoff;
+
+/**
+ * Create a new Backoff for each simulated client.
+ */
+public interface BackoffFactory {
+
+  /**
+   * @return new Backoff instance. Must not be shared between clients.
+   */
+  @NonNull Backoff create();
+}
@@ -0,0 +1,88 @@
+package com.yuki312.backoff.simulator;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (virtual time, client) events backed by primitive arrays.
+ * Each client has at most one pending event, so no boxing or per-event allocation is needed.
+ */
+class EventQueue {
+
+  private long[] times;
+  private int[] clients;
+  private int size = 0;
+
+  EventQueue(int capacity) {
+    times = new long[Math.max(capacity, 1)];
+    clients = new int[Math.max(capacity, 1)];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void add(long time, int client) {
+    if (size == times.length) {
+      times = Arrays.copyOf(times, size * 2);
+      clients = Arrays.copyOf(clients, size * 2);
+    }
+
+    // sift up
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (times[parent] <= time) {
+        break;
+      }
+      times[i] = times[parent];
+      clients[i] = clients[parent];
+      i = parent;
+    }
+    times[i] = time;
+    clients[i] = client;
+  }
+
+  /**
+   * @return time of the earliest event
+   */
+  long peekTime() {
+    return times[0];
+  }
+
+  /**
+   * Remove the earliest event.
+   *
+   * @return client of the earliest event
+   */
+  int poll() {
+    int client = clients[0];
+    size--;
+    if (size > 0) {
+      long time = times[size];
+      int last = clients[size];
+
+      // sift down
+      int i = 0;
+      int half = size >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && times[child + 1] < times[child]) {
+          child++;
+        }
+        if (time <= times[child]) {
+          break;
+        }
+        times[i] = times[child];
+        clients[i] = clients[child];
+        i = child;
+      }
+      times[i] = time;
+      clients[i] = last;
+    }
+    return client;
+  }
+}
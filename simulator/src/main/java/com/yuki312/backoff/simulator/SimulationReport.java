@@ -0,0 +1,134 @@
+package com.yuki312.backoff.simulator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of {@link Simulator#run()}. All times are virtual time in nanoseconds.
+ */
+public class SimulationReport {
+
+  private final int clients;
+  private final long attempts;
+  private final long wastedAttempts;
+  private final int succeeded;
+  private final int aborted;
+  private final int unfinished;
+  private final int peakLoad;
+  private final long loadWindow;
+  private final long recoveryTime;
+  private final long[] latencies; // sorted
+
+  SimulationReport(int clients, long attempts, long wastedAttempts, int succeeded, int aborted,
+      int unfinished, int peakLoad, long loadWindow, long recoveryTime, long[] latencies) {
+    this.clients = clients;
+    this.attempts = attempts;
+    this.wastedAttempts = wastedAttempts;
+    this.succeeded = succeeded;
+    this.aborted = aborted;
+    this.unfinished = unfinished;
+    this.peakLoad = peakLoad;
+    this.loadWindow = loadWindow;
+    this.recoveryTime = recoveryTime;
+    this.latencies = latencies;
+  }
+
+  /**
+   * @return number of simulated clients
+   */
+  public int getClients() {
+    return clients;
+  }
+
+  /**
+   * @return total number of requests including retries
+   */
+  public long getAttempts() {
+    return attempts;
+  }
+
+  /**
+   * @return number of rejected requests
+   */
+  public long getWastedAttempts() {
+    return wastedAttempts;
+  }
+
+  /**
+   * @return number of clients whose request finally succeeded
+   */
+  public int getSucceeded() {
+    return succeeded;
+  }
+
+  /**
+   * @return number of clients that gave up retrying
+   */
+  public int getAborted() {
+    return aborted;
+  }
+
+  /**
+   * @return number of clients still retrying at the simulation horizon
+   */
+  public int getUnfinished() {
+    return unfinished;
+  }
+
+  /**
+   * @return the maximum number of requests received within one capacity window
+   * @see #getLoadWindow()
+   */
+  public int getPeakLoad() {
+    return peakLoad;
+  }
+
+  /**
+   * @return capacity window used to measure the load (nanoseconds)
+   */
+  public long getLoadWindow() {
+    return loadWindow;
+  }
+
+  /**
+   * @return time from the end of the outage until the last rejected request (nanoseconds)
+   */
+  public long getRecoveryTime() {
+    return recoveryTime;
+  }
+
+  /**
+   * Latency from the first request to the success of each succeeded client.
+   *
+   * @param percentile percentile in the range of 0.0 to 100.0
+   * @return latency (nanoseconds), or 0 if no client succeeded
+   */
+  public long getLatency(double percentile) {
+    if (percentile < 0.0 || 100.0 < percentile) {
+      throw new IllegalArgumentException(
+          "Percentile is invalid. Must be greater or equal 0.0 and lower or equal 100.0.");
+    }
+    if (latencies.length == 0) {
+      return 0L;
+    }
+
+    int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+    return latencies[Math.min(Math.max(index, 0), latencies.length - 1)];
+  }
+
+  @Override public String toString() {
+    return "SimulationReport{"
+        + "clients=" + clients
+        + ", attempts=" + attempts
+        + ", wastedAttempts=" + wastedAttempts
+        + ", succeeded=" + succeeded
+        + ", aborted=" + aborted
+        + ", unfinished=" + unfinished
+        + ", peakLoad=" + peakLoad + "/" + TimeUnit.NANOSECONDS.toMillis(loadWindow) + "ms"
+        + ", recoveryTime=" + TimeUnit.NANOSECONDS.toMillis(recoveryTime) + "ms"
+        + ", p50=" + TimeUnit.NANOSECONDS.toMillis(getLatency(50.0)) + "ms"
+        + ", p90=" + TimeUnit.NANOSECONDS.toMillis(getLatency(90.0)) + "ms"
+        + ", p99=" + TimeUnit.NANOSECONDS.toMillis(getLatency(99.0)) + "ms"
+        + ", max=" + TimeUnit.NANOSECONDS.toMillis(getLatency(100.0)) + "ms"
+        + '}';
+  }
+}
@@ -0,0 +1,270 @@
+package com.yuki312.backoff.simulator;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import com.yuki312.backoff.core.Backoff;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discrete-event simulator of clients retrying against a capacity-limited server.
+ *
+ * <pre><code>
+ *   SimulationReport report = new Simulator.Builder()
+ *       .setClients(50_000)
+ *       .setArrivalWindow(1, TimeUnit.SECONDS)
+ *       .setCapacity(5_000, 1, TimeUnit.SECONDS)
+ *       .setOutage(0, 10, TimeUnit.SECONDS)
+ *       .setBackoff(new BackoffFactory() {
+ *         public Backoff create() {
+ *           return new Backoff.Builder().setAlgorithm(new ExponentialAlgorithm()).build();
+ *         }
+ *       })
+ *       .build()
+ *       .run();
+ * </code></pre>
+ *
+ * Time is virtual, so nothing sleeps. Each client sends one request at a random time within the
+ * arrival window, and retries it with its own {@link Backoff} until it succeeds or aborts.
+ * The server accepts at most {@code capacity} requests per time window, and rejects every request
+ * during the outage.
+ */
+public class Simulator {
+
+  private final int clients;
+  private final long arrivalWindow; // nanoseconds
+  private final int capacity;
+  private final long capacityWindow; // nanoseconds
+  private final long outageStart; // nanoseconds
+  private final long outageEnd; // nanoseconds
+  private final long horizon; // nanoseconds
+  private final long seed;
+  private final BackoffFactory backoffFactory;
+
+  private Simulator(Builder builder) {
+    this.clients = builder.clients;
+    this.arrivalWindow = builder.arrivalWindow;
+    this.capacity = builder.capacity;
+    this.capacityWindow = builder.capacityWindow;
+    this.outageStart = builder.outageStart;
+    this.outageEnd = builder.outageEnd;
+    this.horizon = builder.horizon;
+    this.seed = builder.seed;
+    this.backoffFactory = builder.backoffFactory;
+  }
+
+  /**
+   * Run the simulation.
+   *
+   * @return result of the simulation
+   */
+  @NonNull public SimulationReport run() {
+    final Random random = new Random(seed);
+    final EventQueue queue = new EventQueue(clients);
+    final Backoff[] backoffs = new Backoff[clients];
+    final long[] firstAttempts = new long[clients];
+    final long[] latencies = new long[clients];
+
+    for (int c = 0; c < clients; c++) {
+      backoffs[c] = backoffFactory.create();
+      long t = arrivalWindow == 0L ? 0L : (long) (random.nextDouble() * arrivalWindow);
+      firstAttempts[c] = t;
+      queue.add(t, c);
+    }
+
+    long attempts = 0L;
+    long rejected = 0L;
+    int succeeded = 0;
+    int aborted = 0;
+    long lastRejection = -1L;
+    long window = -1L;
+    int load = 0;
+    int accepted = 0;
+    int peakLoad = 0;
+
+    while (!queue.isEmpty()) {
+      long now = queue.peekTime();
+      if (now > horizon) {
+        break;
+      }
+      int c = queue.poll();
+      attempts++;
+
+      long w = now / capacityWindow;
+      if (w != window) {
+        window = w;
+        load = 0;
+        accepted = 0;
+      }
+      load++;
+      peakLoad = Math.max(peakLoad, load);
+
+      boolean outage = outageStart <= now && now < outageEnd;
+      if (!outage && accepted < capacity) {
+        accepted++;
+        latencies[succeeded++] = now - firstAttempts[c];
+        continue;
+      }
+
+      rejected++;
+      lastRejection = now;
+      long next = backoffs[c].intervalNanos();
+      if (next == Backoff.ABORT) {
+        aborted++;
+      } else {
+        queue.add(now + next, c);
+      }
+    }
+
+    long[] sorted = Arrays.copyOf(latencies, succeeded);
+    Arrays.sort(sorted);
+    long recoveryTime = Math.max(lastRejection - outageEnd, 0L);
+    return new SimulationReport(clients, attempts, rejected, succeeded, aborted, queue.size(),
+        peakLoad, capacityWindow, recoveryTime, sorted);
+  }
+
+  public static class Builder {
+
+    public static final int DEFAULT_CLIENTS = 10_000;
+
+    public static final long DEFAULT_HORIZON = TimeUnit.HOURS.toNanos(1L);
+
+    private int clients = DEFAULT_CLIENTS;
+    private long arrivalWindow = 0L;
+    private int capacity = Integer.MAX_VALUE;
+    private long capacityWindow = TimeUnit.SECONDS.toNanos(1L);
+    private long outageStart = 0L;
+    private long outageEnd = 0L;
+    private long horizon = DEFAULT_HORIZON;
+    private long seed = 0L;
+    private BackoffFactory backoffFactory = new BackoffFactory() {
+      @NonNull @Override public Backoff create() {
+        return new Backoff.Builder().build();
+      }
+    };
+
+    /**
+     * Set the number of simulated clients.
+     *
+     * @param clients number of clients
+     * @return Simulator builder
+     * @see #DEFAULT_CLIENTS
+     */
+    public Builder setClients(@IntRange(from = 1) int clients) {
+      if (clients < 1) {
+        throw new IllegalArgumentException("Clients is invalid. Must be greater than 1.");
+      }
+
+      this.clients = clients;
+      return this;
+    }
+
+    /**
+     * Set the time window in which clients send the first request.
+     * The first request of each client is sent at a random time within the window.
+     *
+     * @param window arrival window. All clients start at 0 when 0 is specified.
+     * @param unit the units of time that {@code window} is expressed in
+     * @return Simulator builder
+     */
+    public Builder setArrivalWindow(@IntRange(from = 0) long window, @NonNull TimeUnit unit) {
+      long t = unit.toNanos(window);
+      if (t < 0L) {
+        throw new IllegalArgumentException("Window is invalid. Must be greater or equal 0.");
+      }
+
+      this.arrivalWindow = t;
+      return this;
+    }
+
+    /**
+     * Set the server capacity. The server accepts at most {@code requests} per {@code window}.
+     *
+     * @param requests maximum number of accepted requests per window
+     * @param window capacity window
+     * @param unit the units of time that {@code window} is expressed in
+     * @return Simulator builder
+     */
+    public Builder setCapacity(@IntRange(from = 1) int requests, @IntRange(from = 1) long window,
+        @NonNull TimeUnit unit) {
+      long t = unit.toNanos(window);
+      if (requests < 1) {
+        throw new IllegalArgumentException("Requests is invalid. Must be greater than 1.");
+      }
+      if (t < 1L) {
+        throw new IllegalArgumentException("Window is invalid. Must be greater than 1.");
+      }
+
+      this.capacity = requests;
+      this.capacityWindow = t;
+      return this;
+    }
+
+    /**
+     * Set the outage window. The server rejects all requests from {@code start} to {@code end}.
+     *
+     * @param start start time of the outage
+     * @param end end time of the outage (exclusive)
+     * @param unit the units of time that {@code start} and {@code end} are expressed in
+     * @return Simulator builder
+     */
+    public Builder setOutage(@IntRange(from = 0) long start, @IntRange(from = 0) long end,
+        @NonNull TimeUnit unit) {
+      long s = unit.toNanos(start);
+      long e = unit.toNanos(end);
+      if (s < 0L || e < s) {
+        throw new IllegalArgumentException(
+            "Outage is invalid. Must be 0 <= start <= end.");
+      }
+
+      this.outageStart = s;
+      this.outageEnd = e;
+      return this;
+    }
+
+    /**
+     * Set the maximum virtual time to simulate. Events after this time are not processed.
+     *
+     * @param horizon maximum virtual time
+     * @param unit the units of time that {@code horizon} is expressed in
+     * @return Simulator builder
+     * @see #DEFAULT_HORIZON
+     */
+    public Builder setHorizon(@IntRange(from = 1) long horizon, @NonNull TimeUnit unit) {
+      long t = unit.toNanos(horizon);
+      if (t < 1L) {
+        throw new IllegalArgumentException("Horizon is invalid. Must be greater than 1.");
+      }
+
+      this.horizon = t;
+      return this;
+    }
+
+    /**
+     * Set the random seed of the client arrival times.
+     *
+     * @param seed random seed
+     * @return Simulator builder
+     */
+    public Builder setSeed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Set the factory of Backoff. Each client uses its own Backoff created by the factory.
+     *
+     * @param factory factory of Backoff
+     * @return Simulator builder
+     */
+    public Builder setBackoff(@NonNull BackoffFactory factory) {
+      this.backoffFactory = factory;
+      return this;
+    }
+
+    @NonNull public Simulator build() {
+      return new Simulator(this);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.yuki312.backoff.simulator;
+
+import android.support.annotation.NonNull;
+import com.yuki312.backoff.core.Backoff;
+import com.yuki312.backoff.core.ExponentialAlgorithm;
+import com.yuki312.backoff.core.FixedIntervalAlgorithm;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnit4.class)
+public class SimulatorTest {
+
+  @Test
+  public void outage() {
+    /*
+     * Outage 0..1000ms, retry every 300ms:
+     *
+     * | Time | Result  |
+     * | ---- | ------- |
+     * | 0    | reject  |
+     * | 300  | reject  |
+     * | 600  | reject  |
+     * | 900  | reject  |
+     * | 1200 | success |
+     */
+    SimulationReport report = new Simulator.Builder()
+        .setClients(1000)
+        .setOutage(0L, 1000L, TimeUnit.MILLISECONDS)
+        .setBackoff(fixed(300L, 10))
+        .build()
+        .run();
+
+    assertThat(report.getSucceeded()).isEqualTo(1000);
+    assertThat(report.getAttempts()).isEqualTo(5000L);
+    assertThat(report.getWastedAttempts()).isEqualTo(4000L);
+    assertThat(report.getPeakLoad()).isEqualTo(4000); // 4 attempts within the first second
+    assertThat(report.getRecoveryTime()).isEqualTo(0L);
+    assertThat(report.getLatency(50.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1200L));
+    assertThat(report.getLatency(100.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1200L));
+  }
+
+  @Test
+  public void capacity() {
+    // 10 requests are accepted per 100ms. The others are retried after 100ms.
+    SimulationReport report = new Simulator.Builder()
+        .setClients(100)
+        .setCapacity(10, 100L, TimeUnit.MILLISECONDS)
+        .setBackoff(fixed(100L, 100))
+        .build()
+        .run();
+
+    assertThat(report.getSucceeded()).isEqualTo(100);
+    assertThat(report.getPeakLoad()).isEqualTo(100);
+    assertThat(report.getRecoveryTime()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(800L));
+    assertThat(report.getLatency(100.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(900L));
+  }
+
+  @Test
+  public void abort() {
+    SimulationReport report = new Simulator.Builder()
+        .setClients(100)
+        .setOutage(0L, 1L, TimeUnit.HOURS)
+        .setBackoff(fixed(100L, 3))
+        .build()
+        .run();
+
+    assertThat(report.getSucceeded()).isEqualTo(0);
+    assertThat(report.getAborted()).isEqualTo(100);
+    assertThat(report.getWastedAttempts()).isEqualTo(400L); // try(1 time) + retry(3 times)
+  }
+
+  @Test
+  public void retryStorm() {
+    SimulationReport report = new Simulator.Builder()
+        .setClients(50_000)
+        .setArrivalWindow(1L, TimeUnit.SECONDS)
+        .setCapacity(5_000, 1L, TimeUnit.SECONDS)
+        .setOutage(0L, 10L, TimeUnit.SECONDS)
+        .setBackoff(new BackoffFactory() {
+          @NonNull @Override public Backoff create() {
+            return new Backoff.Builder()
+                .setAlgorithm(new ExponentialAlgorithm())
+                .setUnlimitedRetryCount()
+                .setUnlimitedElapsedTime()
+                .build();
+          }
+        })
+        .build()
+        .run();
+
+    assertThat(report.getSucceeded()).isEqualTo(50_000);
+    assertThat(report.getAttempts())
+        .isEqualTo(report.getSucceeded() + report.getWastedAttempts());
+    assertThat(report.getLatency(50.0)).isLessThanOrEqualTo(report.getLatency(99.0));
+  }
+
+  private static BackoffFactory fixed(final long interval, final int maxRetryCount) {
+    return new BackoffFactory() {
+      @NonNull @Override public Backoff create() {
+        return new Backoff.Builder()
+            .setAlgorithm(new FixedIntervalAlgorithm(interval, TimeUnit.MILLISECONDS))
+            .setMaxRetryCount(maxRetryCount)
+            .setUnlimitedElapsedTime()
+            .build();
+      }
+    };
+  }
+}